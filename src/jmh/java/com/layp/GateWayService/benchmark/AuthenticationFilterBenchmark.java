@@ -0,0 +1,76 @@
+package com.layp.GateWayService.benchmark;
+
+import com.layp.GateWayService.filter.AuthenticationFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of AuthenticationFilter.apply(...) on a mock exchange
+ * exchangeOnly measures building the mock exchange and running an empty chain,
+ * subtract it from the other results to isolate the filter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AuthenticationFilterBenchmark {
+
+    private static final GatewayFilterChain CHAIN = exchange -> Mono.empty();
+
+    @Param({"true", "false"})
+    private boolean cacheEnabled;
+
+    @Param({"false", "true"})
+    private boolean fastPathEnabled;
+
+    private GatewayFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        AuthenticationFilter factory = BenchmarkFixtures.authenticationFilter(
+                BenchmarkFixtures.jwtUtil(fastPathEnabled), cacheEnabled);
+        filter = factory.apply(new AuthenticationFilter.Config());
+        authorization = "Bearer " + BenchmarkFixtures.token("johndoe", "USER", 0);
+        MockServerWebExchange exchange = exchange();
+        filter.filter(exchange, CHAIN).block();
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status != null && status.isError()) {
+            throw new IllegalStateException("Filter rejected the benchmark request: " + status);
+        }
+    }
+
+    @Benchmark
+    public MockServerWebExchange authenticate() {
+        MockServerWebExchange exchange = exchange();
+        filter.filter(exchange, CHAIN).block();
+        return exchange;
+    }
+
+    @Benchmark
+    public MockServerWebExchange exchangeOnly() {
+        MockServerWebExchange exchange = exchange();
+        CHAIN.filter(exchange).block();
+        return exchange;
+    }
+
+    private MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/layp/users/getAllUser")
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .header("x-userName", "johndoe"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.layp.GateWayService.benchmark;
+
+import com.layp.GateWayService.TestFixtures;
+import com.layp.GateWayService.filter.AuthenticationFilter;
+import com.layp.GateWayService.identity.IdentityContextCodec;
+import com.layp.GateWayService.service.ApiKeyStore;
+import com.layp.GateWayService.service.AuthFailureTracker;
+import com.layp.GateWayService.util.JwtUtil;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Wires gateway components outside the Spring context for benchmarks
+ * Token verification comes from TestFixtures, shared with the unit tests
+ */
+final class BenchmarkFixtures {
+
+    static final String SECRET = TestFixtures.SECRET;
+    static final long EXPIRATION = TestFixtures.EXPIRATION;
+    static final String IDENTITY_KEY = "internalidentitykey12345internalidentitykey12345";
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtUtil jwtUtil(boolean fastPathEnabled) {
+        return TestFixtures.jwtUtil(fastPathEnabled);
+    }
+
+    static AuthenticationFilter authenticationFilter(JwtUtil jwtUtil, boolean cacheEnabled) {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuthenticationFilter filter = new AuthenticationFilter();
+        AuthFailureTracker tracker = TestFixtures.authFailureTracker(meterRegistry);
+        ReflectionTestUtils.setField(filter, "tokenVerificationService", TestFixtures.tokenVerificationService(jwtUtil,
+                TestFixtures.verifiedTokenCache(jwtUtil, cacheEnabled, meterRegistry),
+                TestFixtures.revocationList(meterRegistry), tracker, meterRegistry));
+        ReflectionTestUtils.setField(filter, "authFailureTracker", tracker);
+        ReflectionTestUtils.setField(filter, "apiKeyStore", new ApiKeyStore());
+        ReflectionTestUtils.setField(filter, "identityContextCodec",
+                new IdentityContextCodec(IDENTITY_KEY.getBytes(StandardCharsets.UTF_8)));
+        ReflectionTestUtils.setField(filter, "publicPaths", new String[]{"/auth/**"});
+        filter.init();
+        return filter;
+    }
+
+    /**
+     * Signs a kid-less HS256 token like JwtUtil does, padded with extra string claims
+     * @param extraClaims number of additional 16-character claims
+     * @return compact token
+     */
+    static String token(String username, String role, int extraClaims) {
+        JwtBuilder builder = Jwts.builder()
+                .claim("role", role)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(username)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION));
+        for (int i = 0; i < extraClaims; i++) {
+            builder.claim("claim" + i, "value-0123456789");
+        }
+        return builder.signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256).compact();
+    }
+}
@@ -0,0 +1,50 @@
+package com.layp.GateWayService.benchmark;
+
+import com.layp.GateWayService.domain.VerifiedToken;
+import com.layp.GateWayService.util.Hs256FastVerifier;
+import com.layp.GateWayService.util.JwtUtil;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fast-path HS256 verification against the jjwt parse path in JwtUtil
+ * Run with -prof gc to compare allocation per operation as well as throughput
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class Hs256FastVerifierBenchmark {
+
+    private JwtUtil jwtUtil;
+    private Hs256FastVerifier fastVerifier;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = BenchmarkFixtures.jwtUtil(false);
+        token = jwtUtil.generateToken("johndoe", "USER");
+        fastVerifier = new Hs256FastVerifier(Keys.hmacShaKeyFor(BenchmarkFixtures.SECRET.getBytes()));
+        VerifiedToken verified = fastVerifier.verify(token, System.currentTimeMillis());
+        if (verified == null || !"johndoe".equals(verified.getSubject())) {
+            throw new IllegalStateException("Token did not take the fast path");
+        }
+    }
+
+    @Benchmark
+    public VerifiedToken fastPath() {
+        return fastVerifier.verify(token, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public VerifiedToken jjwt() {
+        return jwtUtil.verify(token);
+    }
+}
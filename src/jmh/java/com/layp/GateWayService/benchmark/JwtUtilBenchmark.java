@@ -0,0 +1,108 @@
+package com.layp.GateWayService.benchmark;
+
+import com.layp.GateWayService.domain.VerifiedToken;
+import com.layp.GateWayService.util.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of JwtUtil token generation, validation and claim extraction
+ * Tokens carry extraClaims additional claims to show how cost grows with token size
+ * The rebuild* benchmarks reproduce the previous per-call key derivation and parser construction,
+ * so the ops/sec gain from the cached key and parser can be read off the same run
+ * validateThenExtract reproduces the filter's former validate/extract sequence for comparison with verify
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = BenchmarkFixtures.SECRET;
+    private static final long EXPIRATION = BenchmarkFixtures.EXPIRATION;
+
+    @Param({"0", "8", "32"})
+    private int extraClaims;
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = BenchmarkFixtures.jwtUtil(false);
+        token = BenchmarkFixtures.token("johndoe", "USER", extraClaims);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public String extractRole() {
+        return jwtUtil.extractRole(token);
+    }
+
+    @Benchmark
+    public Date extractExpiration() {
+        return jwtUtil.extractExpiration(token);
+    }
+
+    @Benchmark
+    public String validateThenExtract() {
+        jwtUtil.validateToken(token);
+        return jwtUtil.extractUsername(token) + jwtUtil.extractRole(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("johndoe", "USER");
+    }
+
+    @Benchmark
+    public Boolean rebuildValidateToken() {
+        Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token);
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getExpiration()
+                .after(new Date());
+    }
+
+    @Benchmark
+    public String rebuildGenerateToken() {
+        return Jwts.builder()
+                .claim("role", "USER")
+                .setSubject("johndoe")
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
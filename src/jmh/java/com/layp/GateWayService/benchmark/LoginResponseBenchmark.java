@@ -0,0 +1,64 @@
+package com.layp.GateWayService.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.layp.GateWayService.domain.TokenResponse;
+import com.layp.GateWayService.domain.ValidatedUser;
+import com.layp.GateWayService.util.LoginJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON work of one login, from the USER-SERVICE reply bytes to the response body buffer
+ * mapPath reproduces the former Map decode, HashMap response and reflective Jackson encode,
+ * templatePath the streaming read and pre-encoded template of LoginJson
+ * Token signing is the same for both and left out; run with -prof gc and compare gc.alloc.rate.norm
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LoginResponseBenchmark {
+
+    private static final String REFRESH_TOKEN = "kq3Zt8yF0m2Yp7Xc1vB6nL4sH9dJ5wQeRtUiOaSdFgA";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DataBufferFactory buffers = DefaultDataBufferFactory.sharedInstance;
+    private byte[] reply;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        reply = ("{\"id\":42,\"username\":\"johndoe\",\"email\":\"johndoe@example.com\","
+                + "\"about\":\"Hotel reviewer\",\"role\":\"USER\"}").getBytes(StandardCharsets.UTF_8);
+        token = BenchmarkFixtures.token("johndoe", "USER", 0);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public DataBuffer mapPath() throws Exception {
+        Map<String, Object> userDetails = objectMapper.readValue(reply, Map.class);
+        String role = (String) userDetails.get("role");
+        Map<String, String> response = new HashMap<>();
+        response.put("token", token);
+        response.put("refreshToken", REFRESH_TOKEN + role.length());
+        return buffers.wrap(objectMapper.writeValueAsBytes(response));
+    }
+
+    @Benchmark
+    public DataBuffer templatePath() {
+        ValidatedUser user = LoginJson.readValidatedUser(buffers.wrap(reply));
+        return LoginJson.write(buffers, new TokenResponse(token, REFRESH_TOKEN + user.role().length()));
+    }
+}
@@ -0,0 +1,90 @@
+package com.layp.GateWayService.benchmark;
+
+import com.layp.GateWayService.util.PathTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Public-path matching with hundreds of patterns
+ * PathTrie against a linear scan of Spring PathPatterns, the usual alternative
+ * The hit path matches one of the last patterns, the miss path shares prefixes with many
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PathTrieBenchmark {
+
+    @Param({"100", "500"})
+    private int patternCount;
+
+    private PathTrie trie;
+    private List<PathPattern> pathPatterns;
+    private String hitPath;
+    private String missPath;
+
+    @Setup
+    public void setUp() {
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < patternCount; i++) {
+            switch (i % 3) {
+                case 0 -> patterns.add("/layp/service" + i + "/public/**");
+                case 1 -> patterns.add("/layp/service" + i + "/items/*/preview");
+                default -> patterns.add("/layp/service" + i + "/health");
+            }
+        }
+        trie = PathTrie.compile(patterns);
+        pathPatterns = new ArrayList<>();
+        for (String pattern : patterns) {
+            pathPatterns.add(PathPatternParser.defaultInstance.parse(pattern));
+        }
+        int last = patternCount - 1 - ((patternCount - 1) % 3);
+        hitPath = "/layp/service" + last + "/public/assets/logo.png";
+        missPath = "/layp/service" + (last + 1) + "/items/42/details";
+        if (!trie.matches(hitPath) || trie.matches(missPath)) {
+            throw new IllegalStateException("Benchmark paths do not match as expected");
+        }
+    }
+
+    @Benchmark
+    public boolean trieHit() {
+        return trie.matches(hitPath);
+    }
+
+    @Benchmark
+    public boolean trieMiss() {
+        return trie.matches(missPath);
+    }
+
+    @Benchmark
+    public boolean pathPatternHit() {
+        return scan(hitPath);
+    }
+
+    @Benchmark
+    public boolean pathPatternMiss() {
+        return scan(missPath);
+    }
+
+    private boolean scan(String path) {
+        PathContainer container = PathContainer.parsePath(path);
+        for (PathPattern pattern : pathPatterns) {
+            if (pattern.matches(container)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
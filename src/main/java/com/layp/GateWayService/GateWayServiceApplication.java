@@ -2,9 +2,11 @@ package com.layp.GateWayService;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 //import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 
 @SpringBootApplication
+@EnableScheduling
 //@EnableDiscoveryClient
 public class GateWayServiceApplication {
 
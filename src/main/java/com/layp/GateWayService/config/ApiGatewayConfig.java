@@ -1,5 +1,6 @@
 package com.layp.GateWayService.config;
 
+import com.layp.GateWayService.filter.AuthMode;
 import com.layp.GateWayService.filter.AuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
@@ -50,7 +51,7 @@ public class ApiGatewayConfig {
      * Route structure:
      * - /auth/** -> Forward to local controller (public)
      * - /layp/users/** -> USER-SERVICE (protected)
-     * - /layp/hotels/** -> HOTEL-SERVICE (protected)
+     * - /layp/hotels/** -> HOTEL-SERVICE (protected, JWT or API key)
      * - /layp/ratings/** -> RATING-SERVICE (protected)
      *
      * @param builder RouteLocatorBuilder instance
@@ -67,8 +68,9 @@ public class ApiGatewayConfig {
                         .filters(f -> f.filter(authFilter.apply(new AuthenticationFilter.Config()))
                                 .rewritePath("/layp/users/(?<segment>.*)", "/${segment}"))
                         .uri("lb://USER-SERVICE"))
+                // HOTEL-SERVICE also serves machine clients authenticating with X-Api-Key
                 .route(r -> r.path("/layp/hotels/**")
-                        .filters(f -> f.filter(authFilter.apply(new AuthenticationFilter.Config()))
+                        .filters(f -> f.filter(authFilter.apply(new AuthenticationFilter.Config().setMode(AuthMode.ANY)))
                                 .rewritePath("/layp/hotels/(?<segment>.*)", "/${segment}"))
                         .uri("lb://HOTEL-SERVICE"))
                 .route(r -> r.path("/layp/ratings/**")
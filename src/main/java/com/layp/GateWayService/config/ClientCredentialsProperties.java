@@ -0,0 +1,70 @@
+package com.layp.GateWayService.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine clients allowed to use the client-credentials grant, bound from auth.clients
+ * Re-bound by ClientCredentialsService on every config refresh
+ *
+ * Example:
+ * auth.clients.nightly-rating-import.secret-sha256: 9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08
+ * auth.clients.nightly-rating-import.role: SERVICE
+ * auth.clients.nightly-rating-import.scopes: ratings.write,hotels.read
+ */
+public class ClientCredentialsProperties {
+
+    /**
+     * Clients indexed by client_id
+     */
+    private Map<String, Client> clients = new LinkedHashMap<>();
+
+    public Map<String, Client> getClients() {
+        return clients;
+    }
+
+    public void setClients(Map<String, Client> clients) {
+        this.clients = clients;
+    }
+
+    /**
+     * One machine client; only the SHA-256 of its secret is configured, never the secret itself
+     */
+    public static class Client {
+        private String secretSha256;
+        private String role = "SERVICE";
+        private List<String> scopes = new ArrayList<>();
+
+        /**
+         * Hex SHA-256 of the client secret
+         */
+        public String getSecretSha256() {
+            return secretSha256;
+        }
+
+        public void setSecretSha256(String secretSha256) {
+            this.secretSha256 = secretSha256;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public void setRole(String role) {
+            this.role = role;
+        }
+
+        /**
+         * Scopes the client may request, all of them when the request names none
+         */
+        public List<String> getScopes() {
+            return scopes;
+        }
+
+        public void setScopes(List<String> scopes) {
+            this.scopes = scopes;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.layp.GateWayService.config;
+
+import com.layp.GateWayService.identity.IdentityContextCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Identity Context Configuration
+ * Provides the codec that signs the identity header forwarded to downstream services
+ */
+@Configuration
+public class IdentityContextConfig {
+
+    /**
+     * Signs the X-Auth-Context header added by AuthenticationFilter
+     * The same key is configured on every service that verifies the header
+     *
+     * @param key internal HMAC key, at least 32 bytes
+     * @return IdentityContextCodec shared by all routes
+     */
+    @Bean
+    public IdentityContextCodec identityContextCodec(@Value("${gateway.identity.key}") String key) {
+        return new IdentityContextCodec(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
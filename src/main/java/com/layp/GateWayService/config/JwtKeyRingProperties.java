@@ -0,0 +1,119 @@
+package com.layp.GateWayService.config;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JWT key ring settings bound from jwt.key-ring
+ * Re-bound by JwtUtil on every config refresh, so keys can be added,
+ * promoted and retired without a restart
+ *
+ * Example:
+ * jwt.key-ring.active: 2026-10
+ * jwt.key-ring.keys.2026-10.secret: ...
+ * jwt.key-ring.keys.2026-07.secret: ...
+ * jwt.key-ring.keys.2026-07.retired-at: 2026-10-01T00:00:00Z
+ *
+ * Once a ring is configured jwt.secret no longer verifies anything; to keep kid-less
+ * tokens issued before the migration valid, add that secret as an entry with legacy: true
+ * and retire it like any other key
+ */
+public class JwtKeyRingProperties {
+
+    /**
+     * kid of the key that signs new tokens, every other key is verify-only
+     */
+    private String active;
+
+    /**
+     * Keys indexed by kid
+     */
+    private Map<String, Key> keys = new LinkedHashMap<>();
+
+    public String getActive() {
+        return active;
+    }
+
+    public void setActive(String active) {
+        this.active = active;
+    }
+
+    public Map<String, Key> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(Map<String, Key> keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Single ring entry: an HS256 secret or an ES256 key pair
+     * Verify-only ES256 entries may omit the private key
+     */
+    public static class Key {
+        private String algorithm = "HS256";
+        private String secret;
+        private String privateKey;
+        private String publicKey;
+
+        /**
+         * When the key stopped signing; it is dropped once the longest-lived token
+         * it could have signed has expired
+         */
+        private Instant retiredAt;
+
+        /**
+         * Whether this HS256 key also verifies tokens without a kid, at most one entry
+         */
+        private boolean legacy;
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(String algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public String getPrivateKey() {
+            return privateKey;
+        }
+
+        public void setPrivateKey(String privateKey) {
+            this.privateKey = privateKey;
+        }
+
+        public String getPublicKey() {
+            return publicKey;
+        }
+
+        public void setPublicKey(String publicKey) {
+            this.publicKey = publicKey;
+        }
+
+        public Instant getRetiredAt() {
+            return retiredAt;
+        }
+
+        public void setRetiredAt(Instant retiredAt) {
+            this.retiredAt = retiredAt;
+        }
+
+        public boolean isLegacy() {
+            return legacy;
+        }
+
+        public void setLegacy(boolean legacy) {
+            this.legacy = legacy;
+        }
+    }
+}
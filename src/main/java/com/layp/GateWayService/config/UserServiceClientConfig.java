@@ -0,0 +1,125 @@
+package com.layp.GateWayService.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * USER-SERVICE Client Configuration
+ * Provides the one WebClient AuthController uses to validate credentials
+ *
+ * Technical implementation:
+ * - Built once from the load-balanced WebClient.Builder, so lb:// resolution still applies
+ * - Runs on its own Reactor Netty connection pool, sized and timed out independently of the
+ *   gateway routes, so slow logins cannot starve proxied traffic of connections
+ * - Pool metrics are published to Micrometer as reactor.netty.connection.provider.* with name "user-service"
+ * - Circuit breaker, time limiter and bulkhead instances named "user-service" guard the validate call,
+ *   configured under resilience4j.* and visible through the actuator endpoints and health
+ */
+@Configuration
+public class UserServiceClientConfig {
+
+    /**
+     * Connection pool dedicated to USER-SERVICE
+     * Settings under user-service.client.*:
+     * - max-connections: connections held open at most
+     * - pending-acquire-max-count: requests allowed to wait for a connection, beyond that they fail fast
+     * - pending-acquire-timeout: ms a request waits for a connection
+     * - max-idle-time / max-life-time: ms before an idle / any connection is closed
+     * - evict-interval: ms between background sweeps for idle and expired connections
+     *
+     * @return ConnectionProvider disposed with the application context
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider userServiceConnectionProvider(
+            @Value("${user-service.client.max-connections:100}") int maxConnections,
+            @Value("${user-service.client.pending-acquire-max-count:500}") int pendingAcquireMaxCount,
+            @Value("${user-service.client.pending-acquire-timeout:5000}") long pendingAcquireTimeout,
+            @Value("${user-service.client.max-idle-time:30000}") long maxIdleTime,
+            @Value("${user-service.client.max-life-time:300000}") long maxLifeTime,
+            @Value("${user-service.client.evict-interval:60000}") long evictInterval) {
+        return ConnectionProvider.builder("user-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeout))
+                .maxIdleTime(Duration.ofMillis(maxIdleTime))
+                .maxLifeTime(Duration.ofMillis(maxLifeTime))
+                .evictInBackground(Duration.ofMillis(evictInterval))
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Pre-built WebClient for USER-SERVICE calls
+     *
+     * @param webClientBuilder load-balanced builder from ApiGatewayConfig, cloned so it stays untouched
+     * @param userServiceConnectionProvider dedicated connection pool
+     * @param baseUrl USER-SERVICE base URL, lb:// style host resolved by the load balancer
+     * @param connectTimeout ms to establish a TCP connection
+     * @param responseTimeout ms to wait for the response after the request is sent
+     * @return WebClient shared by all login requests
+     */
+    @Bean
+    public WebClient userServiceWebClient(
+            @LoadBalanced WebClient.Builder webClientBuilder,
+            ConnectionProvider userServiceConnectionProvider,
+            @Value("${user-service.client.base-url:http://USER-SERVICE}") String baseUrl,
+            @Value("${user-service.client.connect-timeout:2000}") int connectTimeout,
+            @Value("${user-service.client.response-timeout:5000}") long responseTimeout) {
+        HttpClient httpClient = HttpClient.create(userServiceConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .responseTimeout(Duration.ofMillis(responseTimeout));
+        return webClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    /**
+     * Circuit breaker for USER-SERVICE, opens on the sliding-window failure rate
+     * so logins fail fast with 503 instead of queueing on a struggling upstream
+     *
+     * @param registry Resilience4j registry holding resilience4j.circuitbreaker.instances.user-service
+     * @return CircuitBreaker shared by all login requests
+     */
+    @Bean
+    public CircuitBreaker userServiceCircuitBreaker(CircuitBreakerRegistry registry) {
+        return registry.circuitBreaker("user-service");
+    }
+
+    /**
+     * Hard deadline for one validate call, connection acquisition and body included
+     *
+     * @param registry Resilience4j registry holding resilience4j.timelimiter.instances.user-service
+     * @return TimeLimiter shared by all login requests
+     */
+    @Bean
+    public TimeLimiter userServiceTimeLimiter(TimeLimiterRegistry registry) {
+        return registry.timeLimiter("user-service");
+    }
+
+    /**
+     * Caps concurrent validate calls so logins cannot occupy the whole connection pool and pending queue
+     *
+     * @param registry Resilience4j registry holding resilience4j.bulkhead.instances.user-service
+     * @return semaphore Bulkhead shared by all login requests
+     */
+    @Bean
+    public Bulkhead userServiceBulkhead(BulkheadRegistry registry) {
+        return registry.bulkhead("user-service");
+    }
+}
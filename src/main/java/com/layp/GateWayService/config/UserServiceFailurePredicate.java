@@ -0,0 +1,26 @@
+package com.layp.GateWayService.config;
+
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.function.Predicate;
+
+/**
+ * Decides which USER-SERVICE errors count against the user-service circuit breaker
+ * Referenced from resilience4j.circuitbreaker.instances.user-service.record-failure-predicate
+ *
+ * Business rules:
+ * - Rejected credentials (4xx) are a healthy answer, they never open the breaker
+ * - Logins refused by the gateway's own bulkhead never reached USER-SERVICE, they are listed
+ *   under ignore-exceptions instead, so they count neither way
+ * - Everything else (5xx, timeouts, connection errors) is a failure
+ */
+public class UserServiceFailurePredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable throwable) {
+        if (throwable instanceof WebClientResponseException e) {
+            return !e.getStatusCode().is4xxClientError();
+        }
+        return true;
+    }
+}
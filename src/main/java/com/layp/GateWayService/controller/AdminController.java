@@ -0,0 +1,189 @@
+package com.layp.GateWayService.controller;
+
+import com.layp.GateWayService.domain.RevocationRequest;
+import com.layp.GateWayService.domain.VerifiedToken;
+import com.layp.GateWayService.service.AuthFailureTracker;
+import com.layp.GateWayService.service.CredentialCache;
+import com.layp.GateWayService.service.TokenRevocationList;
+import com.layp.GateWayService.service.TokenVerificationService;
+import com.layp.GateWayService.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Administrative Controller
+ * Operational endpoints of the gateway's authentication state
+ * Every call requires a bearer token carrying the configured admin role,
+ * verified through TokenVerificationService like any proxied request
+ */
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+    private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenVerificationService tokenVerificationService;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private CredentialCache credentialCache;
+
+    @Autowired
+    private AuthFailureTracker authFailureTracker;
+
+    @Value("${gateway.admin.role:ADMIN}")
+    private String adminRole;
+
+    /**
+     * Revokes a token before its expiry
+     * Business flow:
+     * 1. Checks the caller holds the admin role
+     * 2. Resolves jti and exp from the submitted token, or takes them as given
+     * 3. Adds the jti to the revocation list until the token expires
+     *
+     * A given expiresAt must be the token's exp in epoch milliseconds: values in the past
+     * (such as an exp in seconds) or beyond the longest token lifetime are rejected
+     * rather than accepted as a revocation that would never match
+     *
+     * @param authorization caller's bearer token
+     * @param request token, or jti with expiresAt, to revoke
+     * @return 202 once revoked, 400 for an unusable request, 401/403 for an unauthorized caller
+     */
+    @PostMapping("/revocations")
+    public Mono<ResponseEntity<Void>> revoke(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                             @RequestBody RevocationRequest request) {
+        return authorized(authorization, () -> revoke(request));
+    }
+
+    private ResponseEntity<Void> revoke(RevocationRequest request) {
+        String tokenId = request.getJti();
+        Long expiresAt = request.getExpiresAt();
+        if (request.getToken() != null) {
+            try {
+                VerifiedToken token = jwtUtil.verify(request.getToken());
+                tokenId = token.getId();
+                expiresAt = token.getExpiresAtMillis();
+            } catch (JwtException e) {
+                // Invalid or expired tokens are already rejected by the gateway
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        if (tokenId == null || expiresAt == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        long now = System.currentTimeMillis();
+        if (expiresAt > now + jwtUtil.getExpirationTime()) {
+            logger.warn("Rejected revocation of {}: expiresAt {} is not a live token exp in milliseconds", tokenId, expiresAt);
+            return ResponseEntity.badRequest().build();
+        }
+        if (!revocationList.revoke(tokenId, expiresAt)) {
+            logger.warn("Rejected revocation of {}: expiresAt {} has passed", tokenId, expiresAt);
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Revoked token {} until {}", tokenId, expiresAt);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+
+    /**
+     * Drops one user's cached credentials
+     * Business use: USER-SERVICE calls this after changing the user's role or password,
+     * so the next login is validated upstream again
+     *
+     * @param authorization caller's bearer token
+     * @param username user to invalidate
+     * @return 204 once invalidated, 401/403 for an unauthorized caller
+     */
+    @DeleteMapping("/credential-cache/{username}")
+    public Mono<ResponseEntity<Void>> invalidateCredentials(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                                            @PathVariable String username) {
+        return authorized(authorization, () -> {
+            credentialCache.invalidate(username);
+            logger.info("Invalidated cached credentials of {}", username);
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    /**
+     * Drops all cached credentials, e.g. after a bulk role migration
+     *
+     * @param authorization caller's bearer token
+     * @return 204 once invalidated, 401/403 for an unauthorized caller
+     */
+    @DeleteMapping("/credential-cache")
+    public Mono<ResponseEntity<Void>> invalidateAllCredentials(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        return authorized(authorization, () -> {
+            credentialCache.invalidateAll();
+            logger.info("Invalidated all cached credentials");
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    /**
+     * Lifts an authentication-failure block before its cool-down ends
+     *
+     * @param authorization caller's bearer token
+     * @param client blocked client (remote IP) as listed by the authfailures JMX endpoint
+     * @return 204 once lifted, 404 if the client is not tracked, 401/403 for an unauthorized caller
+     */
+    @DeleteMapping("/auth-failures/{client}")
+    public Mono<ResponseEntity<Void>> unblock(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                              @PathVariable String client) {
+        return authorized(authorization, () -> {
+            if (!authFailureTracker.reset(client)) {
+                return ResponseEntity.notFound().build();
+            }
+            logger.info("Lifted authentication failure block of {}", client);
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    /**
+     * Runs an admin action once the caller is authorized
+     * @param authorization Authorization header value
+     * @param action builds the response, invoked only for an admin caller
+     * @return the action's response, 401/403 for an unauthorized caller, 503 when verification is overloaded
+     */
+    private Mono<ResponseEntity<Void>> authorized(String authorization, Supplier<ResponseEntity<Void>> action) {
+        return authorize(authorization)
+                .map(status -> status == HttpStatus.OK ? action.get() : ResponseEntity.status(status).<Void>build());
+    }
+
+    /**
+     * Checks the caller's bearer token for the admin role
+     * Technical implementation: goes through TokenVerificationService, so ES256 tokens are verified
+     * off the event loop and revoked or recently failed tokens are rejected the same way as on proxied routes
+     * @param authorization Authorization header value
+     * @return OK when authorized, otherwise the status to reply with
+     */
+    private Mono<HttpStatus> authorize(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return Mono.just(HttpStatus.UNAUTHORIZED);
+        }
+        return tokenVerificationService.verify(authorization.substring(7))
+                .map(caller -> adminRole.equals(caller.getRole()) ? HttpStatus.OK : HttpStatus.FORBIDDEN)
+                .onErrorResume(e -> Mono.just(e instanceof RejectedExecutionException
+                        ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.UNAUTHORIZED));
+    }
+}
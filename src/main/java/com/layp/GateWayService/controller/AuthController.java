@@ -1,23 +1,65 @@
 package com.layp.GateWayService.controller;
 
 import com.layp.GateWayService.domain.AuthRequest;
+import com.layp.GateWayService.domain.RefreshRequest;
+import com.layp.GateWayService.domain.TokenResponse;
+import com.layp.GateWayService.domain.ValidatedUser;
+import com.layp.GateWayService.service.ClientCredentialsService;
+import com.layp.GateWayService.service.CredentialCache;
+import com.layp.GateWayService.service.GatewayLog;
+import com.layp.GateWayService.service.LoginRateLimiter;
+import com.layp.GateWayService.service.RefreshTokenStore;
+import com.layp.GateWayService.service.TokenVerificationService;
+import com.layp.GateWayService.util.ClientAddress;
 import com.layp.GateWayService.util.JwtUtil;
+import com.layp.GateWayService.util.Jwks;
+import com.layp.GateWayService.util.LoginJson;
+import com.layp.GateWayService.util.SingleFlight;
+import com.layp.GateWayService.util.TokenHash;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.timelimiter.TimeLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Authentication Controller
@@ -29,60 +71,381 @@ import java.util.HashMap;
 public class AuthController {
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
+    /**
+     * Heap buffers for token responses, released by the GC once written
+     */
+    private static final DataBufferFactory BUFFERS = DefaultDataBufferFactory.sharedInstance;
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    /**
+     * Pre-built client for USER-SERVICE, see UserServiceClientConfig
+     */
+    @Autowired
+    private WebClient userServiceWebClient;
+
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
+
+    @Autowired
+    private TokenVerificationService tokenVerificationService;
+
+    @Autowired
+    private CredentialCache credentialCache;
+
     @Autowired
-    private WebClient.Builder webClientBuilder;
+    private LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    private GatewayLog gatewayLog;
+
+    @Autowired
+    private ClientCredentialsService clientCredentialsService;
+
+    @Autowired
+    private CircuitBreaker userServiceCircuitBreaker;
+
+    @Autowired
+    private TimeLimiter userServiceTimeLimiter;
+
+    @Autowired
+    private Bulkhead userServiceBulkhead;
+
+    /**
+     * USER-SERVICE validations in flight, keyed by a hash of username and password
+     */
+    private final SingleFlight<String, ValidatedUser> validations = new SingleFlight<>();
+
+    /**
+     * Largest number of tokens accepted by one introspection request
+     */
+    @Value("${auth.introspect.max-batch:1000}")
+    private int introspectMaxBatch;
+
+    /**
+     * Tokens of one introspection request verified at the same time, bounded by jwt.offload.threads
+     */
+    @Value("${auth.introspect.concurrency:16}")
+    private int introspectConcurrency;
+
+    /**
+     * Scope a client-credentials client must be configured with to call /auth/introspect
+     */
+    @Value("${auth.introspect.scope:tokens.introspect}")
+    private String introspectScope;
+
+    @Value("${gateway.admin.role:ADMIN}")
+    private String adminRole;
+
+    /**
+     * Cache lifetime of the JWKS document in seconds
+     * New signing keys should be published at least this long before they are used
+     */
+    @Value("${jwt.jwks.max-age:86400}")
+    private long jwksMaxAge;
 
     /**
      * Handles user login requests
      * Business flow:
-     * 1. Receives username/password credentials
-     * 2. Validates credentials with USER-SERVICE
-     * 3. Generates JWT token for valid users
-     * 4. Returns token for successful authentication
+     * 1. Receives username/password credentials; throttled callers get 429 with Retry-After
+     * 2. Validates credentials with USER-SERVICE, unless CredentialCache recently saw them accepted;
+     *    identical logins already in flight share that call
+     * 3. Generates JWT token and a refresh token for valid users, separately for each caller
+     * 4. Returns both tokens for successful authentication
      *
      * Technical implementation:
-     * - Uses WebClient for reactive service-to-service communication
+     * - Uses one pre-built WebClient on a dedicated connection pool for service-to-service communication
+     * - SingleFlight coalesces concurrent validations with the same username and password hash,
+     *   so a reconnect storm costs USER-SERVICE one call per distinct credential
+     * - The USER-SERVICE call runs inside a bulkhead, a time limiter and a circuit breaker:
+     *   open breaker or full bulkhead return 503 at once, a call past the deadline returns 504
+     * - The USER-SERVICE reply is read into a ValidatedUser with a streaming parser, and the response
+     *   is spliced into a pre-encoded JSON template, with no maps or reflective serialization
      * - Implements reactive programming with Project Reactor
      * - Handles errors with proper HTTP status codes
-     * - Includes logging for monitoring and debugging
+     * - Logs one structured record per outcome through GatewayLog, never formatting on the event loop;
+     *   only unexpected errors also go to the application log
      *
      * @param request AuthRequest containing username and password
-     * @return Mono<ResponseEntity> with JWT token or error response
+     * @param httpRequest raw request, its remote address is rate limited
+     * @return Mono<ResponseEntity> with the TokenResponse JSON, or {} with the error status
      */
     @PostMapping("/login")
-    public Mono<ResponseEntity<Map<String, String>>> login(@RequestBody AuthRequest request) {
-        logger.info("Login attempt for user: {}", request.getUsername());
-        
-        return webClientBuilder.build()
-                .post()
-                .uri("http://USER-SERVICE/users/validate")
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(Map.class)
-                .map(userDetails -> {
-                    logger.info("User validated successfully: {}", request.getUsername());
-                    String token = jwtUtil.generateToken(
-                            request.getUsername(),
-                            (String) userDetails.get("role")
-                    );
-                    Map<String, String> response = new HashMap<>();
-                    response.put("token", token);
-                    return ResponseEntity.ok(response);
+    public Mono<ResponseEntity<DataBuffer>> login(@RequestBody AuthRequest request, ServerHttpRequest httpRequest) {
+        long retryAfter = loginRateLimiter.tryAcquire(ClientAddress.of(httpRequest), request.getUsername());
+        if (retryAfter > 0) {
+            logLogin(request, HttpStatus.TOO_MANY_REQUESTS, "throttled");
+            return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(LoginJson.emptyObject(BUFFERS)));
+        }
+        String credentialKey = TokenHash.of(request.getUsername() + '\u0000' + request.getPassword());
+        return validations.execute(credentialKey, () -> credentialCache
+                        .lookup(request.getUsername(), request.getPassword())
+                        .switchIfEmpty(userServiceWebClient
+                                .post()
+                                .uri("/users/validate")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(request)
+                                .retrieve()
+                                .bodyToMono(DataBuffer.class)
+                                .map(LoginJson::readValidatedUser)
+                                .transformDeferred(BulkheadOperator.of(userServiceBulkhead))
+                                .transformDeferred(TimeLimiterOperator.of(userServiceTimeLimiter))
+                                .transformDeferred(CircuitBreakerOperator.of(userServiceCircuitBreaker))
+                                .flatMap(user -> credentialCache.store(request.getUsername(),
+                                        request.getPassword(), user.role()).thenReturn(user))))
+                .map(user -> {
+                    logLogin(request, HttpStatus.OK, null);
+                    String token = jwtUtil.generateToken(request.getUsername(), user.role());
+                    String refreshToken = refreshTokenStore.issue(request.getUsername(), user.role());
+                    return tokens(new TokenResponse(token, refreshToken));
                 })
                 .onErrorResume(WebClientResponseException.class, e -> {
-                    logger.error("User service returned error: {} - {}", e.getStatusCode(), e.getMessage());
-                    return Mono.just(ResponseEntity.status(e.getStatusCode())
-                            .body(new HashMap<>()));
+                    return Mono.just(loginFailed(request, e.getStatusCode(), "user-service"));
+                })
+                .onErrorResume(CallNotPermittedException.class, e -> {
+                    return Mono.just(loginFailed(request, HttpStatus.SERVICE_UNAVAILABLE, "circuit-open"));
+                })
+                .onErrorResume(BulkheadFullException.class, e -> {
+                    return Mono.just(loginFailed(request, HttpStatus.SERVICE_UNAVAILABLE, "bulkhead-full"));
+                })
+                .onErrorResume(TimeoutException.class, e -> {
+                    return Mono.just(loginFailed(request, HttpStatus.GATEWAY_TIMEOUT, "timeout"));
                 })
                 .onErrorResume(Exception.class, e -> {
                     logger.error("Login failed for user: {}. Error: {}", request.getUsername(), e.getMessage());
-                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                            .body(new HashMap<>()));
+                    return Mono.just(loginFailed(request, HttpStatus.INTERNAL_SERVER_ERROR, "error"));
                 });
     }
-}
 
+    /**
+     * OAuth 2.0 client-credentials grant for internal batch jobs and services
+     * Business flow:
+     * 1. Accepts a form with grant_type=client_credentials, optional scope, and the client's
+     *    credentials as HTTP Basic or as client_id / client_secret fields
+     * 2. Checks the secret against the hashes in auth.clients
+     * 3. Returns the client's current token, signing a new one only when none is cached,
+     *    it is close to expiry, or it was revoked
+     *
+     * Technical implementation:
+     * - Delegates to ClientCredentialsService; nothing is sent to USER-SERVICE
+     * - Errors follow RFC 6749: 400 unsupported_grant_type / invalid_scope, 401 invalid_client
+     *
+     * @param exchange current exchange, for the form and the Authorization header
+     * @return Mono<ResponseEntity> with access_token, token_type, expires_in and scope, or an OAuth error
+     */
+    @PostMapping(value = "/token", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> token(ServerWebExchange exchange) {
+        return exchange.getFormData().map(form -> {
+            if (!"client_credentials".equals(form.getFirst("grant_type"))) {
+                return tokenError(HttpStatus.BAD_REQUEST, "unsupported_grant_type", form.getFirst("client_id"));
+            }
+            String[] credentials = basicCredentials(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+            String clientId = credentials != null ? credentials[0] : form.getFirst("client_id");
+            String clientSecret = credentials != null ? credentials[1] : form.getFirst("client_secret");
+            ClientCredentialsService.Grant grant = clientCredentialsService.issue(clientId, clientSecret,
+                    form.getFirst("scope"));
+            if (grant.error() != null) {
+                HttpStatus status = "invalid_client".equals(grant.error()) ? HttpStatus.UNAUTHORIZED : HttpStatus.BAD_REQUEST;
+                return tokenError(status, grant.error(), clientId);
+            }
+            gatewayLog.log("auth", "token", "client", clientId, "status", HttpStatus.OK.value(), "scope", grant.scope());
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("access_token", grant.token());
+            response.put("token_type", "Bearer");
+            response.put("expires_in", Math.max(0, (grant.expiresAtMillis() - System.currentTimeMillis()) / 1000));
+            response.put("scope", grant.scope());
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(response);
+        });
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token
+     * Business flow:
+     * 1. Redeems the single-use refresh token from the gateway's own store
+     * 2. Issues a new JWT and the next refresh token of the same family
+     * 3. Never contacts USER-SERVICE, so hourly expiry does not cost a credential check
+     *
+     * Reusing a redeemed refresh token revokes its whole family
+     *
+     * @param request RefreshRequest containing the refresh token
+     * @return Mono<ResponseEntity> with the TokenResponse JSON, or 401 for an unusable refresh token
+     */
+    @PostMapping("/refresh")
+    public Mono<ResponseEntity<DataBuffer>> refresh(@RequestBody RefreshRequest request) {
+        RefreshTokenStore.Rotation rotation = request.getRefreshToken() == null
+                ? null
+                : refreshTokenStore.rotate(request.getRefreshToken());
+        if (rotation == null) {
+            return Mono.just(error(HttpStatus.UNAUTHORIZED));
+        }
+        String token = jwtUtil.generateToken(rotation.getUsername(), rotation.getRole());
+        return Mono.just(tokens(new TokenResponse(token, rotation.getRefreshToken())));
+    }
+
+    /**
+     * Checks a batch of tokens for services that receive them outside the gateway path
+     * Business flow:
+     * 1. Authenticates the caller: a token with the admin role, or a machine token of a
+     *    client-credentials client granted the auth.introspect.scope scope
+     * 2. Accepts a JSON array of tokens, at most auth.introspect.max-batch
+     * 3. Verifies each one exactly as AuthenticationFilter would, revocations included
+     * 4. Returns one verdict per token, in request order: active with its claims, or inactive with a reason
+     *
+     * Technical implementation:
+     * - Goes through TokenVerificationService, sharing its verified/negative caches and offload scheduler
+     * - Cache misses, HS256 included, are verified on that scheduler rather than the event loop;
+     *   flatMapSequential keeps up to auth.introspect.concurrency of them in flight and restores request
+     *   order, so a batch runs in parallel on the verification threads
+     * - Tokens refused because the verification queue is full are reported as "temporarily unavailable"
+     * - claims are those of the VerifiedToken; with jwt.fast-path.enabled HS256 tokens carry only
+     *   jti, sub, role, exp, scope and client_id
+     *
+     * @param authorization caller's bearer token
+     * @param tokens compact JWTs, without the "Bearer " prefix
+     * @return Mono<ResponseEntity> with the verdicts, 400 for an empty or oversized batch,
+     *         401/403 for an unauthorized caller, 503 when verification is overloaded
+     */
+    @PostMapping("/introspect")
+    public Mono<ResponseEntity<List<Map<String, Object>>>> introspect(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody List<String> tokens) {
+        return authorizeIntrospection(authorization).flatMap(status -> {
+            if (status != HttpStatus.OK) {
+                return Mono.just(ResponseEntity.status(status).<List<Map<String, Object>>>build());
+            }
+            if (tokens == null || tokens.isEmpty() || tokens.size() > introspectMaxBatch) {
+                return Mono.just(ResponseEntity.badRequest().body(new ArrayList<>()));
+            }
+            return Flux.fromIterable(tokens)
+                    .flatMapSequential(this::introspect, introspectConcurrency)
+                    .collectList()
+                    .map(ResponseEntity::ok);
+        });
+    }
+
+    /**
+     * Checks the introspection caller's bearer token
+     * Verified before the batch so an anonymous caller cannot test tokens or read their claims
+     * @param authorization Authorization header value
+     * @return OK when authorized, otherwise the status to reply with
+     */
+    private Mono<HttpStatus> authorizeIntrospection(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return Mono.just(HttpStatus.UNAUTHORIZED);
+        }
+        return tokenVerificationService.verify(authorization.substring(7))
+                .map(caller -> adminRole.equals(caller.getRole())
+                        || clientCredentialsService.isClientWithScope(caller, introspectScope)
+                        ? HttpStatus.OK : HttpStatus.FORBIDDEN)
+                .onErrorResume(e -> Mono.just(e instanceof RejectedExecutionException
+                        ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.UNAUTHORIZED));
+    }
+
+    private Mono<Map<String, Object>> introspect(String token) {
+        if (token == null || token.isBlank()) {
+            return Mono.just(inactive("empty token"));
+        }
+        return tokenVerificationService.verifyOffloaded(token)
+                .map(verified -> {
+                    Map<String, Object> verdict = new LinkedHashMap<>();
+                    verdict.put("active", true);
+                    verdict.put("sub", verified.getSubject());
+                    verdict.put("role", verified.getRole());
+                    verdict.put("exp", verified.getExpiresAtMillis() / 1000);
+                    verdict.put("claims", verified.getClaims());
+                    return verdict;
+                })
+                .onErrorResume(e -> Mono.just(inactive(e instanceof RejectedExecutionException
+                        ? "temporarily unavailable" : "invalid token")));
+    }
+
+    private static Map<String, Object> inactive(String reason) {
+        Map<String, Object> verdict = new LinkedHashMap<>();
+        verdict.put("active", false);
+        verdict.put("error", reason);
+        return verdict;
+    }
+
+    private ResponseEntity<Map<String, Object>> tokenError(HttpStatus status, String error, String clientId) {
+        gatewayLog.log("auth", "token", "client", clientId, "status", status.value(), "reason", error);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", error);
+        return ResponseEntity.status(status)
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+
+    /**
+     * @return client_id and client_secret from an HTTP Basic header (form-urlencoded per RFC 6749 2.3.1),
+     *         or null if the header is absent or not Basic
+     */
+    private static String[] basicCredentials(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, "Basic ", 0, 6)) {
+            return null;
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getDecoder().decode(authorization.substring(6).trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int colon = decoded.indexOf(':');
+        if (colon < 0) {
+            return null;
+        }
+        return new String[] {
+                URLDecoder.decode(decoded.substring(0, colon), StandardCharsets.UTF_8),
+                URLDecoder.decode(decoded.substring(colon + 1), StandardCharsets.UTF_8)};
+    }
+
+    private ResponseEntity<DataBuffer> loginFailed(AuthRequest request, HttpStatusCode status, String reason) {
+        logLogin(request, status, reason);
+        return error(status);
+    }
+
+    /**
+     * One "auth"/"login" record per login outcome, formatted and written off the event loop by GatewayLog
+     */
+    private void logLogin(AuthRequest request, HttpStatusCode status, String reason) {
+        gatewayLog.log("auth", "login", "user", request.getUsername(), "status", status.value(), "reason", reason);
+    }
+
+    private static ResponseEntity<DataBuffer> tokens(TokenResponse response) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(LoginJson.write(BUFFERS, response));
+    }
+
+    private static ResponseEntity<DataBuffer> error(HttpStatusCode status) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(LoginJson.emptyObject(BUFFERS));
+    }
+
+    /**
+     * Publishes the gateway's token verification keys as a JSON Web Key Set
+     * Business flow: downstream services fetch and cache this document,
+     * then verify ES256 tokens locally without calling the gateway
+     *
+     * Technical implementation:
+     * - Serves bytes pre-serialized by JwtUtil on key change
+     * - Long-lived public Cache-Control; ETag lets clients revalidate with 304 Not Modified
+     *
+     * @return JWKS document
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<byte[]> jwks() {
+        Jwks jwks = jwtUtil.getJwks();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(jwksMaxAge)).cachePublic())
+                .eTag(jwks.getEtag())
+                .body(jwks.getJson());
+    }
+}
@@ -0,0 +1,38 @@
+package com.layp.GateWayService.controller;
+
+import com.layp.GateWayService.service.AuthFailureTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing authentication failure tracking
+ * Exposed over JMX only: the actuator web port has no authentication,
+ * so a blocked client could otherwise lift its own block
+ *
+ * Operations:
+ * - failures: negative cache size and blocked clients
+ * - unblock(client): lifts a block early, also available as DELETE /admin/auth-failures/{client}
+ */
+@Component
+@Endpoint(id = "authfailures")
+public class AuthFailuresEndpoint {
+
+    @Autowired
+    private AuthFailureTracker authFailureTracker;
+
+    @ReadOperation
+    public Map<String, Object> failures() {
+        return authFailureTracker.snapshot();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> unblock(@Selector String client) {
+        return Map.of("client", client, "reset", authFailureTracker.reset(client));
+    }
+}
@@ -0,0 +1,23 @@
+package com.layp.GateWayService.domain;
+
+/**
+ * Machine client identified by an API key
+ * Forwarded downstream like a JWT subject, with the clientId as the user
+ */
+public final class ApiClient {
+    private final String clientId;
+    private final String role;
+
+    public ApiClient(String clientId, String role) {
+        this.clientId = clientId;
+        this.role = role;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+}
@@ -0,0 +1,18 @@
+package com.layp.GateWayService.domain;
+
+/**
+ * Data Transfer Object for refresh requests
+ * Carries the refresh token issued at login or by the previous refresh
+ */
+public class RefreshRequest {
+    private String refreshToken;
+
+    // Getters and setters
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
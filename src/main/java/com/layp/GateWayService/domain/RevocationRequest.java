@@ -0,0 +1,39 @@
+package com.layp.GateWayService.domain;
+
+/**
+ * Data Transfer Object for token revocation requests
+ * Identifies the token either by its compact form or by jti and expiry
+ */
+public class RevocationRequest {
+    private String token;
+    private String jti;
+    private Long expiresAt;
+
+    // Getters and setters
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public void setJti(String jti) {
+        this.jti = jti;
+    }
+
+    /**
+     * @return exp of the token in epoch milliseconds (not seconds as in the claim)
+     */
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
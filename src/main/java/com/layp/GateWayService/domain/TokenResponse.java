@@ -0,0 +1,11 @@
+package com.layp.GateWayService.domain;
+
+/**
+ * Tokens returned by /auth/login and /auth/refresh
+ * Written as {"token":"...","refreshToken":"..."}
+ *
+ * @param token signed JWT access token
+ * @param refreshToken single-use refresh token
+ */
+public record TokenResponse(String token, String refreshToken) {
+}
@@ -0,0 +1,10 @@
+package com.layp.GateWayService.domain;
+
+/**
+ * USER-SERVICE reply to a successful /users/validate call
+ * Only the role is read, other fields of the reply are skipped
+ *
+ * @param role role to put in the issued tokens, may be null
+ */
+public record ValidatedUser(String role) {
+}
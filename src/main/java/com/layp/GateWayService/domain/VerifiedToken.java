@@ -0,0 +1,62 @@
+package com.layp.GateWayService.domain;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable result of a single JWT signature and expiry check
+ * Carries the claims the gateway needs so the token is never parsed twice
+ */
+public final class VerifiedToken {
+    private final String id;
+    private final String subject;
+    private final String role;
+    private final long expiresAtMillis;
+    private final Map<String, Object> claims;
+
+    public VerifiedToken(String id, String subject, String role, long expiresAtMillis, Map<String, Object> claims) {
+        this.id = id;
+        this.subject = subject;
+        this.role = role;
+        this.expiresAtMillis = expiresAtMillis;
+        this.claims = Collections.unmodifiableMap(claims);
+    }
+
+    /**
+     * @return jti claim, used to revoke the token before its exp
+     */
+    public String getId() {
+        return id;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    /**
+     * Raw claims of the token
+     * Tokens verified on the HS256 fast path carry only jti, sub, role, exp, scope and client_id,
+     * every other claim is present only when the token went through jjwt
+     * @return unmodifiable claim map
+     */
+    public Map<String, Object> getClaims() {
+        return claims;
+    }
+
+    /**
+     * Checks expiry against the given clock reading
+     * @param nowMillis current time in milliseconds
+     * @return true if the token has expired
+     */
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+}
@@ -0,0 +1,61 @@
+package com.layp.GateWayService.filter;
+
+import com.layp.GateWayService.service.GatewayLog;
+import com.layp.GateWayService.util.ClientAddress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Access log for every proxied route
+ * One "access"/"request" record per exchange in the GatewayLog: method, path, status, duration,
+ * route, client address and the authenticated user, if any
+ *
+ * Technical implementation:
+ * - Runs first among the global filters, so rejections by AuthenticationFilter are logged too
+ * - The record is queued when the exchange terminates (completion, error or cancellation)
+ */
+@Component
+public class AccessLogFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Exchange attribute AuthenticationFilter sets to the forwarded user or API client
+     */
+    public static final String USER_ATTR = AccessLogFilter.class.getName() + ".user";
+
+    @Autowired
+    private GatewayLog gatewayLog;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long startNanos = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    ServerHttpRequest request = exchange.getRequest();
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+                    gatewayLog.log("access", "request",
+                            "method", request.getMethod().name(),
+                            "path", request.getURI().getRawPath(),
+                            "status", status == null ? null : status.value(),
+                            "durationMs", (System.nanoTime() - startNanos) / 1_000_000,
+                            "route", route == null ? null : route.getId(),
+                            "client", ClientAddress.of(request),
+                            "user", exchange.getAttribute(USER_ATTR),
+                            "signal", signal.name());
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,19 @@
+package com.layp.GateWayService.filter;
+
+/**
+ * Credentials a route accepts, set through AuthenticationFilter.Config
+ */
+public enum AuthMode {
+    /**
+     * Bearer JWT from /auth/login, the default
+     */
+    JWT,
+    /**
+     * X-Api-Key header resolved through ApiKeyStore
+     */
+    API_KEY,
+    /**
+     * Either; X-Api-Key is used when present, otherwise the bearer JWT
+     */
+    ANY
+}
@@ -1,15 +1,33 @@
 package com.layp.GateWayService.filter;
 
-import com.layp.GateWayService.util.JwtUtil;
+import com.layp.GateWayService.domain.ApiClient;
+import com.layp.GateWayService.domain.VerifiedToken;
+import com.layp.GateWayService.identity.IdentityContextCodec;
+import com.layp.GateWayService.service.ApiKeyStore;
+import com.layp.GateWayService.service.AuthFailureTracker;
+import com.layp.GateWayService.service.TokenVerificationService;
+import com.layp.GateWayService.util.ClientAddress;
+import com.layp.GateWayService.util.PathTrie;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Gateway filter for JWT-based authentication
  * Implements Spring Cloud Gateway's filter mechanism to secure API endpoints
@@ -18,8 +36,41 @@ import reactor.core.publisher.Mono;
 @Component
 public class AuthenticationFilter extends AbstractGatewayFilterFactory<AuthenticationFilter.Config> {
 
+    /**
+     * Header machine clients send their API key in, on routes with mode API_KEY or ANY
+     */
+    public static final String API_KEY_HEADER = "X-Api-Key";
+
+    @Autowired
+    private TokenVerificationService tokenVerificationService;
+
+    @Autowired
+    private AuthFailureTracker authFailureTracker;
+
+    @Autowired
+    private ApiKeyStore apiKeyStore;
+
+    /**
+     * Lifetime of the X-Auth-Context minted for an API-key request, keys themselves do not expire
+     */
+    @Value("${gateway.api-keys.context-ttl:300000}")
+    private long apiKeyContextTtl;
+
     @Autowired
-    private JwtUtil jwtUtil;
+    private IdentityContextCodec identityContextCodec;
+
+    /**
+     * Comma-separated path patterns that never require a token, see PathTrie for the syntax
+     */
+    @Value("${gateway.auth.public-paths:/auth/**}")
+    private String[] publicPaths;
+
+    private PathTrie publicPathTrie;
+
+    /**
+     * Bit of each role named by a route policy
+     */
+    private final Map<String, Long> roleBits = new ConcurrentHashMap<>();
 
     /**
      * Constructor initializing the filter with configuration class
@@ -29,78 +80,266 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
         super(Config.class);
     }
 
+    /**
+     * Compiles the global public paths once at startup
+     */
+    @PostConstruct
+    public void init() {
+        publicPathTrie = PathTrie.compile(Arrays.asList(publicPaths));
+    }
+
     /**
      * Main filter method that processes each request
      * Business logic:
-     * 1. Checks if the request needs authentication
-     * 2. Validates JWT token from Authorization header
-     * 3. Extracts user details and adds them to request headers
-     * 4. Allows or denies access based on token validity
+     * 1. Rejects methods the route does not allow with 405
+     * 2. Checks if the request needs authentication, route public sub-paths skip it
+     * 3. Authenticates by X-Api-Key on routes whose mode allows it and the header is present
+     * 4. Otherwise validates JWT token from Authorization header and rejects revoked tokens
+     * 5. Rejects callers whose role the route does not accept with 403
+     * 6. Extracts user details and adds them to request headers
+     *
+     * Downstream services receive X-Auth-User, X-Auth-Role and the signed X-Auth-Context,
+     * so they never re-parse the JWT; client-supplied copies of these headers are removed
      *
      * Technical implementation:
      * - Uses reactive programming (Project Reactor)
-     * - Modifies request headers using ServerWebExchange
-     * - Handles JWT validation through JwtUtil
+     * - The route policy is compiled once here, per request it costs a few mask tests
+     * - Rejections complete the response before the chain runs, so no upstream connection is used
+     * - Forwards a mutated ServerWebExchange carrying the identity headers
+     * - Verifies the JWT through TokenVerificationService, which answers cached and HMAC tokens
+     *   inline and moves asymmetric signature checks off the event loop
+     * - 503 when the verification queue is full, so overload fails fast instead of queueing
+     * - Failures are charged to the remote address; a blocked address gets 429 before any crypto
      *
      * @param config Filter configuration
      * @return GatewayFilter instance
      */
     @Override
     public GatewayFilter apply(Config config) {
+        RoutePolicy policy = RoutePolicy.compile(config, this::registerRole);
         return (exchange, chain) -> {
-            if (isSecured(exchange)) {
+            if (!policy.allowsMethod(exchange.getRequest().getMethod())) {
+                exchange.getResponse().setStatusCode(HttpStatus.METHOD_NOT_ALLOWED);
+                return exchange.getResponse().setComplete();
+            }
+            String path = exchange.getRequest().getURI().getRawPath();
+            if (isSecured(path) && !policy.isPublic(path)) {
+                String client = ClientAddress.of(exchange.getRequest());
+                if (authFailureTracker.isBlocked(client)) {
+                    return reject(exchange, HttpStatus.TOO_MANY_REQUESTS);
+                }
+                String apiKey = policy.acceptsApiKey() ? exchange.getRequest().getHeaders().getFirst(API_KEY_HEADER) : null;
+                if (apiKey != null) {
+                    return forwardApiClient(exchange, chain, policy, apiKey, client);
+                }
+                if (!policy.acceptsJwt()) {
+                    authFailureTracker.recordFailure(client, "missing " + API_KEY_HEADER + " header");
+                    return reject(exchange, HttpStatus.UNAUTHORIZED);
+                }
                 if (!exchange.getRequest().getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+                    authFailureTracker.recordFailure(client, "missing Authorization header");
                     exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
                     return exchange.getResponse().setComplete();
                 }
 
                 String authHeader = exchange.getRequest().getHeaders().get(HttpHeaders.AUTHORIZATION).get(0);
-                String userNameHeader=exchange.getRequest().getHeaders().get("x-userName").get(0);
+                String userNameHeader = exchange.getRequest().getHeaders().getFirst("x-userName");
+                if (userNameHeader == null) {
+                    authFailureTracker.recordFailure(client, "missing x-userName header");
+                    return reject(exchange, HttpStatus.UNAUTHORIZED);
+                }
                 if (authHeader != null && authHeader.startsWith("Bearer ")) {
                     authHeader = authHeader.substring(7);
                 }
-                try {
-                    jwtUtil.validateToken(authHeader);
-                    
-                    // Add user details to headers for downstream services
-                    String username = jwtUtil.extractUsername(authHeader);
-                    String role = jwtUtil.extractRole(authHeader);
-                    if(!userNameHeader.equals(username)){
-                        throw new Exception("Invalid user Token");
-                    }
-                    exchange.getRequest().mutate()
-                        .header("X-Auth-User", username)
-                        .header("X-Auth-Role", role)
-                        .build();
-                        
-                } catch (Exception e) {
-                    exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-                    return exchange.getResponse().setComplete();
-                }
+                return tokenVerificationService.verify(authHeader)
+                        .onErrorResume(e -> {
+                            if (e instanceof RejectedExecutionException) {
+                                return reject(exchange, HttpStatus.SERVICE_UNAVAILABLE).then(Mono.empty());
+                            }
+                            authFailureTracker.recordFailure(client, e.toString());
+                            return reject(exchange, HttpStatus.UNAUTHORIZED).then(Mono.empty());
+                        })
+                        .flatMap(verified -> forward(exchange, chain, policy, verified, userNameHeader, client));
             }
-            return chain.filter(exchange);
+            ServerHttpRequest request = exchange.getRequest().mutate()
+                    .headers(AuthenticationFilter::removeIdentityHeaders)
+                    .build();
+            return chain.filter(exchange.mutate().request(request).build());
         };
     }
 
+    /**
+     * Authorizes a verified caller and forwards the request with identity headers
+     *
+     * @param verified token verified by TokenVerificationService
+     * @param userNameHeader value of the x-userName header, must equal the token subject
+     * @param client remote address, charged with a failure on a subject mismatch
+     * @return completion of the rest of the chain, or of the rejection
+     */
+    private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, RoutePolicy policy,
+                               VerifiedToken verified, String userNameHeader, String client) {
+        if(!userNameHeader.equals(verified.getSubject())){
+            authFailureTracker.recordFailure(client, "x-userName does not match token subject");
+            return reject(exchange, HttpStatus.UNAUTHORIZED);
+        }
+        if (!policy.allowsRole(roleBit(verified.getRole()))) {
+            return reject(exchange, HttpStatus.FORBIDDEN);
+        }
+
+        // Add user details to headers for downstream services
+        return forwardIdentity(exchange, chain, verified.getSubject(), verified.getRole(),
+                verified.getExpiresAtMillis());
+    }
+
+    /**
+     * Authenticates a machine client by API key and forwards the request with its identity
+     * The key itself is removed, downstream services only see the client id and role
+     *
+     * @param apiKey value of the X-Api-Key header
+     * @param client remote address, charged with a failure for an unknown key
+     * @return completion of the rest of the chain, or of the rejection
+     */
+    private Mono<Void> forwardApiClient(ServerWebExchange exchange, GatewayFilterChain chain, RoutePolicy policy,
+                                       String apiKey, String client) {
+        ApiClient apiClient = apiKeyStore.authenticate(apiKey);
+        if (apiClient == null) {
+            authFailureTracker.recordFailure(client, "unknown API key");
+            return reject(exchange, HttpStatus.UNAUTHORIZED);
+        }
+        if (!policy.allowsRole(roleBit(apiClient.getRole()))) {
+            return reject(exchange, HttpStatus.FORBIDDEN);
+        }
+        return forwardIdentity(exchange, chain, apiClient.getClientId(), apiClient.getRole(),
+                System.currentTimeMillis() + apiKeyContextTtl);
+    }
+
+    private Mono<Void> forwardIdentity(ServerWebExchange exchange, GatewayFilterChain chain,
+                                       String username, String role, long expiresAtMillis) {
+        ServerHttpRequest request = exchange.getRequest().mutate()
+            .headers(headers -> {
+                removeIdentityHeaders(headers);
+                headers.remove(API_KEY_HEADER);
+            })
+            .header("X-Auth-User", username)
+            .header("X-Auth-Role", role)
+            .header(IdentityContextCodec.HEADER, identityContextCodec.encode(username, role, expiresAtMillis))
+            .build();
+        exchange.getAttributes().put(AccessLogFilter.USER_ATTR, username);
+        return chain.filter(exchange.mutate().request(request).build());
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status) {
+        exchange.getResponse().setStatusCode(status);
+        return exchange.getResponse().setComplete();
+    }
+
+    /**
+     * Hands out the bit a role occupies in every route's role mask
+     * Called while routes are compiled, so the same role has the same bit on all routes
+     *
+     * @param role role name as carried in the token's role claim
+     * @return single-bit mask for the role
+     * @throws IllegalStateException if more than 64 distinct roles are configured
+     */
+    private synchronized long registerRole(String role) {
+        Long bit = roleBits.get(role);
+        if (bit == null) {
+            if (roleBits.size() == Long.SIZE) {
+                throw new IllegalStateException("Route policies may use at most 64 distinct roles");
+            }
+            bit = 1L << roleBits.size();
+            roleBits.put(role, bit);
+        }
+        return bit;
+    }
+
+    /**
+     * @param role role claim of a verified token
+     * @return the role's bit, 0 if no route requires the role
+     */
+    private long roleBit(String role) {
+        if (role == null) {
+            return 0;
+        }
+        Long bit = roleBits.get(role);
+        return bit == null ? 0 : bit;
+    }
+
+    /**
+     * Strips identity headers a client may have sent itself
+     * Downstream services trust these headers, so only the gateway may set them
+     *
+     * @param headers mutable request headers
+     */
+    private static void removeIdentityHeaders(HttpHeaders headers) {
+        headers.remove("X-Auth-User");
+        headers.remove("X-Auth-Role");
+        headers.remove(IdentityContextCodec.HEADER);
+    }
+
     /**
      * Determines if a request needs authentication
-     * Business rule: Skip authentication for login endpoint
+     * Business rule: paths matching gateway.auth.public-paths skip authentication
      * All other endpoints require authentication
      *
-     * @param exchange ServerWebExchange containing request details
+     * @param rawPath raw request path
      * @return boolean indicating if request needs authentication
      */
-    private boolean isSecured(ServerWebExchange exchange) {
-        String path = exchange.getRequest().getURI().getPath();
-        return !path.contains("/auth/login"); // Skip authentication for login endpoint
+    private boolean isSecured(String rawPath) {
+        return !publicPathTrie.matches(rawPath);
     }
 
     /**
      * Configuration class for the filter
-     * Currently empty but can be extended for future configuration options
+     * Declares the route's authorization policy, compiled once by apply(Config)
      * Required by Spring Cloud Gateway's filter factory pattern
+     *
+     * Business rules:
+     * - requiredRoles: the token's role must be one of these, empty allows any authenticated caller
+     * - allowedMethods: other methods are rejected with 405, empty allows every method
+     * - publicPaths: PathTrie patterns on this route that skip authentication, e.g. /layp/hotels/public/**
+     * - mode: JWT (default), API_KEY or ANY
      */
     public static class Config {
-        // Configuration properties if needed
+        private AuthMode mode = AuthMode.JWT;
+        private List<String> requiredRoles = new ArrayList<>();
+        private List<String> allowedMethods = new ArrayList<>();
+        private List<String> publicPaths = new ArrayList<>();
+
+        public List<String> getRequiredRoles() {
+            return requiredRoles;
+        }
+
+        public Config setRequiredRoles(List<String> requiredRoles) {
+            this.requiredRoles = requiredRoles;
+            return this;
+        }
+
+        public List<String> getAllowedMethods() {
+            return allowedMethods;
+        }
+
+        public Config setAllowedMethods(List<String> allowedMethods) {
+            this.allowedMethods = allowedMethods;
+            return this;
+        }
+
+        public List<String> getPublicPaths() {
+            return publicPaths;
+        }
+
+        public Config setPublicPaths(List<String> publicPaths) {
+            this.publicPaths = publicPaths;
+            return this;
+        }
+
+        public AuthMode getMode() {
+            return mode;
+        }
+
+        public Config setMode(AuthMode mode) {
+            this.mode = mode;
+            return this;
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.layp.GateWayService.filter;
+
+import com.layp.GateWayService.util.PathTrie;
+import org.springframework.http.HttpMethod;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Per-route authorization policy compiled from AuthenticationFilter.Config
+ * Built once when the route is created, read on every request
+ *
+ * Technical implementation:
+ * - Required roles are a bitmask over the role bits handed out by AuthenticationFilter
+ * - Allowed methods are a bitmask indexed by the standard HttpMethod constants
+ * - Public sub-paths are compiled into a PathTrie matched against the raw request path
+ * - A zero mask means "no restriction"
+ */
+final class RoutePolicy {
+
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    private final long roleMask;
+    private final int methodMask;
+    private final PathTrie publicPaths;
+    private final AuthMode mode;
+
+    private RoutePolicy(long roleMask, int methodMask, PathTrie publicPaths, AuthMode mode) {
+        this.roleMask = roleMask;
+        this.methodMask = methodMask;
+        this.publicPaths = publicPaths;
+        this.mode = mode;
+    }
+
+    /**
+     * @param config route configuration
+     * @param roleBits assigns each role name its bit
+     * @return compiled policy
+     * @throws IllegalArgumentException if a method or path pattern is invalid
+     */
+    static RoutePolicy compile(AuthenticationFilter.Config config, ToLongFunction<String> roleBits) {
+        long roleMask = 0;
+        for (String role : config.getRequiredRoles()) {
+            roleMask |= roleBits.applyAsLong(role);
+        }
+        int methodMask = 0;
+        for (String method : config.getAllowedMethods()) {
+            int bit = methodBit(HttpMethod.valueOf(method.trim().toUpperCase()));
+            if (bit == 0) {
+                throw new IllegalArgumentException("Unsupported HTTP method in route policy: " + method);
+            }
+            methodMask |= bit;
+        }
+        return new RoutePolicy(roleMask, methodMask, PathTrie.compile(config.getPublicPaths()),
+                config.getMode() == null ? AuthMode.JWT : config.getMode());
+    }
+
+    /**
+     * @param method request method
+     * @return true if the route accepts the method
+     */
+    boolean allowsMethod(HttpMethod method) {
+        return methodMask == 0 || (methodBit(method) & methodMask) != 0;
+    }
+
+    /**
+     * @param roleBit bit of the caller's role, 0 for a role no route requires
+     * @return true if the route accepts the role
+     */
+    boolean allowsRole(long roleBit) {
+        return roleMask == 0 || (roleBit & roleMask) != 0;
+    }
+
+    /**
+     * @param rawPath raw request path
+     * @return true if the path is one of the route's public sub-paths
+     */
+    boolean isPublic(String rawPath) {
+        return publicPaths.matches(rawPath);
+    }
+
+    /**
+     * @return true if the route accepts X-Api-Key
+     */
+    boolean acceptsApiKey() {
+        return mode != AuthMode.JWT;
+    }
+
+    /**
+     * @return true if the route accepts a bearer JWT
+     */
+    boolean acceptsJwt() {
+        return mode != AuthMode.API_KEY;
+    }
+
+    private static int methodBit(HttpMethod method) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i] == method) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+}
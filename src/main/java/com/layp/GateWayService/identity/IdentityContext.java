@@ -0,0 +1,32 @@
+package com.layp.GateWayService.identity;
+
+/**
+ * Authenticated caller identity forwarded by the gateway to downstream services
+ * Decoded from the X-Auth-Context header by IdentityContextCodec
+ */
+public final class IdentityContext {
+    private final String username;
+    private final String role;
+    private final long expiresAtSeconds;
+
+    public IdentityContext(String username, String role, long expiresAtSeconds) {
+        this.username = username;
+        this.role = role;
+        this.expiresAtSeconds = expiresAtSeconds;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    /**
+     * @return expiry of the originating token in epoch seconds
+     */
+    public long getExpiresAtSeconds() {
+        return expiresAtSeconds;
+    }
+}
@@ -0,0 +1,128 @@
+package com.layp.GateWayService.identity;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Encodes and verifies the compact, MAC'd identity header the gateway forwards downstream
+ * Services check it with one HMAC instead of re-parsing and re-verifying the JWT
+ *
+ * Wire format (base64url, no padding):
+ * version(1) | expiresAt epoch seconds(4, unsigned) | usernameLength(2) | username UTF-8 |
+ * roleLength(2) | role UTF-8 | HMAC-SHA256 tag truncated to 16 bytes
+ *
+ * Depends only on the JDK, so it ships on its own as the identity-verifier jar
+ */
+public final class IdentityContextCodec {
+
+    /**
+     * Header carrying the encoded identity
+     */
+    public static final String HEADER = "X-Auth-Context";
+
+    private static final byte VERSION = 1;
+    private static final int TAG_LENGTH = 16;
+    private static final int MIN_LENGTH = 1 + 4 + 2 + 2 + TAG_LENGTH;
+
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * @param key internal HMAC key shared by the gateway and downstream services, at least 32 bytes
+     */
+    public IdentityContextCodec(byte[] key) {
+        if (key.length < 32) {
+            throw new IllegalArgumentException("Identity context key must be at least 32 bytes");
+        }
+        SecretKeySpec keySpec = new SecretKeySpec(Arrays.copyOf(key, key.length), "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance("HmacSHA256");
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    /**
+     * Encodes and signs an identity
+     * @param username authenticated user
+     * @param role user's role, may be null
+     * @param expiresAtMillis expiry of the originating token in milliseconds
+     * @return header value
+     */
+    public String encode(String username, String role, long expiresAtMillis) {
+        byte[] user = username.getBytes(StandardCharsets.UTF_8);
+        byte[] roleBytes = role == null ? new byte[0] : role.getBytes(StandardCharsets.UTF_8);
+        if (user.length > 0xffff || roleBytes.length > 0xffff) {
+            throw new IllegalArgumentException("Identity too large");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(MIN_LENGTH + user.length + roleBytes.length);
+        buffer.put(VERSION)
+                .putInt((int) (expiresAtMillis / 1000))
+                .putShort((short) user.length)
+                .put(user)
+                .putShort((short) roleBytes.length)
+                .put(roleBytes);
+        int bodyLength = buffer.position();
+        byte[] bytes = buffer.array();
+        System.arraycopy(tag(bytes, bodyLength), 0, bytes, bodyLength, TAG_LENGTH);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Verifies a header value
+     * @param headerValue X-Auth-Context value, may be null
+     * @return decoded identity, or null when missing, malformed, forged or expired
+     */
+    public IdentityContext verify(String headerValue) {
+        if (headerValue == null) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(headerValue);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (bytes.length < MIN_LENGTH || bytes[0] != VERSION) {
+            return null;
+        }
+        int bodyLength = bytes.length - TAG_LENGTH;
+        byte[] expected = tag(bytes, bodyLength);
+        if (!MessageDigest.isEqual(expected, Arrays.copyOfRange(bytes, bodyLength, bytes.length))) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bodyLength - 1);
+        long expiresAtSeconds = Integer.toUnsignedLong(buffer.getInt());
+        if (expiresAtSeconds * 1000 <= System.currentTimeMillis()) {
+            return null;
+        }
+        int userLength = Short.toUnsignedInt(buffer.getShort());
+        if (buffer.remaining() < userLength + 2) {
+            return null;
+        }
+        String username = new String(bytes, buffer.position(), userLength, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + userLength);
+        int roleLength = Short.toUnsignedInt(buffer.getShort());
+        if (buffer.remaining() != roleLength) {
+            return null;
+        }
+        String role = roleLength == 0 ? null : new String(bytes, buffer.position(), roleLength, StandardCharsets.UTF_8);
+        return new IdentityContext(username, role, expiresAtSeconds);
+    }
+
+    private byte[] tag(byte[] bytes, int length) {
+        Mac instance = mac.get();
+        instance.update(bytes, 0, length);
+        return Arrays.copyOf(instance.doFinal(), TAG_LENGTH);
+    }
+}
@@ -0,0 +1,109 @@
+package com.layp.GateWayService.service;
+
+import com.layp.GateWayService.domain.ApiClient;
+import com.layp.GateWayService.util.ApiKeyIndex;
+import com.layp.GateWayService.util.TokenHash;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HexFormat;
+
+/**
+ * API keys accepted for machine clients, loaded from a local snapshot file
+ * Lets services such as HOTEL-SERVICE's batch clients call the gateway without /auth/login
+ *
+ * Snapshot format, one key per line, '#' starts a comment:
+ * sha256-hex-of-key,clientId,role
+ *
+ * Technical implementation:
+ * - Only key digests are stored, the snapshot never contains a usable key
+ * - The file is polled for changes, a new ApiKeyIndex is built off the request path and
+ *   published through a volatile field, so lookups never lock or see a half-built table
+ * - A snapshot that fails to parse is logged and the previous index is kept
+ */
+@Component
+public class ApiKeyStore {
+    private static final Logger logger = LoggerFactory.getLogger(ApiKeyStore.class);
+
+    /**
+     * Snapshot file, API-key authentication rejects every key when empty
+     */
+    @Value("${gateway.api-keys.snapshot-path:}")
+    private String snapshotPath;
+
+    private volatile ApiKeyIndex index = ApiKeyIndex.empty();
+    private long loadedModified;
+    private long loadedSize;
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * Resolves an API key to its client
+     * @param apiKey key presented in the X-Api-Key header
+     * @return client owning the key, or null if the key is unknown
+     */
+    public ApiClient authenticate(String apiKey) {
+        return index.lookup(TokenHash.sha256(apiKey));
+    }
+
+    /**
+     * Reloads the snapshot if its size or modification time changed
+     * Technical implementation: runs on the scheduler every reload interval, 30 seconds by default
+     */
+    @Scheduled(fixedDelayString = "${gateway.api-keys.reload-interval:30000}")
+    public synchronized void reload() {
+        if (snapshotPath.isBlank()) {
+            return;
+        }
+        Path path = Path.of(snapshotPath);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long modified = attributes.lastModifiedTime().toMillis();
+            if (modified == loadedModified && attributes.size() == loadedSize) {
+                return;
+            }
+            // Recorded before parsing, so a broken snapshot is reported once rather than every poll
+            loadedModified = modified;
+            loadedSize = attributes.size();
+            index = load(path);
+            logger.info("Loaded {} API keys from {}", index.size(), path);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not load API key snapshot {}, keeping {} keys: {}", path, index.size(), e.toString());
+        }
+    }
+
+    private static ApiKeyIndex load(Path path) throws IOException {
+        ApiKeyIndex.Builder builder = new ApiKeyIndex.Builder();
+        HexFormat hex = HexFormat.of();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (fields.length != 3 || fields[0].trim().length() != 64) {
+                    throw new IllegalArgumentException("Malformed API key entry on line " + lineNumber);
+                }
+                builder.add(hex.parseHex(fields[0].trim()), fields[1].trim(), fields[2].trim());
+            }
+        }
+        return builder.build();
+    }
+}
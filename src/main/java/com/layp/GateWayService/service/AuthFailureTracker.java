@@ -0,0 +1,197 @@
+package com.layp.GateWayService.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers tokens and clients that recently failed authentication
+ * Replayed expired or forged tokens are refused without another signature check,
+ * and clients that keep failing are refused before any crypto for a cool-down
+ *
+ * Business rules:
+ * - A token that failed verification is rejected from memory for jwt.negative-cache.ttl
+ * - A client (remote IP) with threshold failures inside one window is blocked for block-duration
+ *
+ * Technical implementation:
+ * - Negative cache: size-bounded Caffeine cache keyed by the token's SHA-256
+ * - Per-client counters: atomic fixed-window counters in a size-bounded Caffeine cache,
+ *   so a spray of source addresses cannot grow memory without limit
+ * - The negative cache is cleared when jwt.* properties change, a new key may make a rejected token valid
+ */
+@Component
+public class AuthFailureTracker {
+    private static final Logger logger = LoggerFactory.getLogger(AuthFailureTracker.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.negative-cache.ttl:60000}")
+    private long negativeTtlMillis;
+
+    @Value("${jwt.negative-cache.max-size:100000}")
+    private long negativeMaxSize;
+
+    /**
+     * Failures within one window that block a client
+     */
+    @Value("${gateway.auth-failures.threshold:20}")
+    private int threshold;
+
+    @Value("${gateway.auth-failures.window:60000}")
+    private long windowMillis;
+
+    @Value("${gateway.auth-failures.block-duration:300000}")
+    private long blockMillis;
+
+    @Value("${gateway.auth-failures.max-clients:100000}")
+    private long maxClients;
+
+    private Cache<String, Boolean> invalidTokens;
+    private Cache<String, ClientFailures> clients;
+    private Counter failures;
+    private Counter blocks;
+    private Counter refused;
+
+    @PostConstruct
+    public void init() {
+        invalidTokens = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(Duration.ofMillis(negativeTtlMillis))
+                .recordStats()
+                .build();
+        clients = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofMillis(Math.max(windowMillis, blockMillis)))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, invalidTokens, "jwt.invalid");
+        blocks = Counter.builder("gateway.auth.failures.blocks")
+                .description("Times a client crossed the failure threshold and was blocked")
+                .register(meterRegistry);
+        failures = Counter.builder("gateway.auth.failures")
+                .description("Authentication failures recorded per client")
+                .register(meterRegistry);
+        refused = Counter.builder("gateway.auth.failures.refused")
+                .description("Requests refused because the client is blocked")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param tokenHash TokenHash.of the JWT token string
+     * @return true if the token failed verification within the negative TTL
+     */
+    public boolean isKnownInvalid(String tokenHash) {
+        return invalidTokens.getIfPresent(tokenHash) != null;
+    }
+
+    /**
+     * @param tokenHash TokenHash.of the JWT token string that failed verification
+     */
+    public void markInvalid(String tokenHash) {
+        invalidTokens.put(tokenHash, Boolean.TRUE);
+    }
+
+    /**
+     * Checks whether a client is in its cool-down, counting the refusal if so
+     * @param client remote address of the caller
+     * @return true if the request must be refused
+     */
+    public boolean isBlocked(String client) {
+        ClientFailures state = clients.getIfPresent(client);
+        if (state == null || state.blockedUntil <= System.currentTimeMillis()) {
+            return false;
+        }
+        refused.increment();
+        return true;
+    }
+
+    /**
+     * Counts one authentication failure for a client and blocks it at the threshold
+     * @param client remote address of the caller
+     * @param reason short failure reason, logged at debug level
+     */
+    public void recordFailure(String client, String reason) {
+        failures.increment();
+        long now = System.currentTimeMillis();
+        ClientFailures state = clients.get(client, key -> new ClientFailures(now));
+        long windowStart = state.windowStart.get();
+        if (now - windowStart >= windowMillis && state.windowStart.compareAndSet(windowStart, now)) {
+            state.count.set(0);
+        }
+        int count = state.count.incrementAndGet();
+        logger.debug("Authentication failure {} of {} from {}: {}", count, threshold, client, reason);
+        if (count == threshold) {
+            state.blockedUntil = now + blockMillis;
+            blocks.increment();
+            logger.warn("Blocking {} for {} ms after {} authentication failures", client, blockMillis, count);
+        }
+    }
+
+    /**
+     * @param client remote address to unblock and reset
+     * @return true if the client had failure state
+     */
+    public boolean reset(String client) {
+        return clients.asMap().remove(client) != null;
+    }
+
+    /**
+     * Snapshot for the actuator endpoint
+     * @return negative cache size, tracked client count and every client currently blocked
+     */
+    public Map<String, Object> snapshot() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> blocked = new LinkedHashMap<>();
+        clients.asMap().forEach((client, state) -> {
+            if (state.blockedUntil > now) {
+                blocked.put(client, Map.of("failures", state.count.get(), "blockedUntil", state.blockedUntil));
+            }
+        });
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("invalidTokens", invalidTokens.estimatedSize());
+        snapshot.put("trackedClients", clients.estimatedSize());
+        snapshot.put("threshold", threshold);
+        snapshot.put("blocked", blocked);
+        return snapshot;
+    }
+
+    /**
+     * Forgets rejected tokens once signing keys change
+     * @param event change event listing the refreshed property keys
+     */
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith("jwt."))) {
+            invalidTokens.invalidateAll();
+        }
+    }
+
+    /**
+     * Failure state of one client
+     */
+    private static final class ClientFailures {
+        private final AtomicLong windowStart;
+        private final AtomicInteger count = new AtomicInteger();
+        private volatile long blockedUntil;
+
+        private ClientFailures(long windowStart) {
+            this.windowStart = new AtomicLong(windowStart);
+        }
+    }
+}
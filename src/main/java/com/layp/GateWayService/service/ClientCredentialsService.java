@@ -0,0 +1,244 @@
+package com.layp.GateWayService.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.layp.GateWayService.config.ClientCredentialsProperties;
+import com.layp.GateWayService.domain.VerifiedToken;
+import com.layp.GateWayService.util.JwtUtil;
+import com.layp.GateWayService.util.TokenHash;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-credentials grant for internal batch jobs and services
+ * Issues machine tokens so they no longer borrow user tokens
+ *
+ * Business rules:
+ * - Clients and the SHA-256 of their secrets come from auth.clients, plain secrets are never configured
+ * - A request may narrow the scopes to a subset of the client's; without a scope it gets all of them
+ * - The same token is handed out again until it is within auth.client-credentials.refresh-margin of expiry,
+ *   or until it is revoked
+ *
+ * Technical implementation:
+ * - Secrets are checked with a constant-time comparison of SHA-256 digests, cheap enough for the event loop;
+ *   client secrets are generated with high entropy, so a slow password hash would add nothing
+ * - Issued tokens are cached per client and granted scopes in Caffeine; compute() on a miss signs
+ *   at most once per key even when a whole job fleet starts at the same time
+ * - Each entry expires at the exp of its token, so a changed jwt.expiration needs no cache rebuild
+ * - Hit/miss statistics published to Micrometer as cache "auth.client-tokens"
+ */
+@Component
+public class ClientCredentialsService {
+    private static final Logger logger = LoggerFactory.getLogger(ClientCredentialsService.class);
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    /**
+     * ms before expiry from which a cached token is no longer handed out
+     */
+    @Value("${auth.client-credentials.refresh-margin:60000}")
+    private long refreshMarginMillis;
+
+    @Value("${auth.client-credentials.max-cached-tokens:10000}")
+    private long maxCachedTokens;
+
+    private volatile Map<String, RegisteredClient> clients = Map.of();
+    private Cache<String, IssuedToken> tokens;
+
+    @PostConstruct
+    public void init() {
+        tokens = Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .expireAfter(new IssuedTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "auth.client-tokens");
+        clients = bindClients();
+    }
+
+    /**
+     * Rebinds clients when auth.clients.* changes and drops cached tokens on auth.clients.* or jwt.* changes,
+     * so removed clients, narrowed scopes, a rotated signing key and a new token lifetime take effect at once
+     * Runs after JwtUtil has rebuilt its keys, so the next token is signed with the new active key
+     * @param event change event listing the refreshed property keys
+     */
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        boolean clientsChanged = event.getKeys().stream().anyMatch(key -> key.startsWith("auth.clients."));
+        if (!clientsChanged && event.getKeys().stream().noneMatch(key -> key.startsWith("jwt."))) {
+            return;
+        }
+        if (clientsChanged) {
+            clients = bindClients();
+            logger.info("Client-credentials clients reloaded: {}", clients.size());
+        }
+        tokens.invalidateAll();
+    }
+
+    /**
+     * Authenticates a client and hands out its token
+     * @param clientId client_id
+     * @param clientSecret client_secret
+     * @param requestedScope space-separated scopes, or null/blank for all of the client's
+     * @return the grant, or the OAuth error explaining the refusal
+     */
+    public Grant issue(String clientId, String clientSecret, String requestedScope) {
+        RegisteredClient client = clientId == null ? null : clients.get(clientId);
+        if (client == null || clientSecret == null
+                || !MessageDigest.isEqual(client.secretSha256(), TokenHash.sha256(clientSecret))) {
+            return Grant.error("invalid_client");
+        }
+        Set<String> scopes = grantedScopes(client, requestedScope);
+        if (scopes == null) {
+            return Grant.error("invalid_scope");
+        }
+        String key = clientId + ' ' + String.join(" ", scopes);
+        long now = System.currentTimeMillis();
+        IssuedToken cached = tokens.getIfPresent(key);
+        if (cached == null || !isUsable(cached, now)) {
+            cached = tokens.asMap().compute(key, (k, current) -> current != null && isUsable(current, now)
+                    ? current
+                    : sign(clientId, client.role(), scopes));
+        }
+        return new Grant(cached.value(), cached.verified().getExpiresAtMillis(), String.join(" ", scopes), null);
+    }
+
+    /**
+     * Checks whether a verified token is a machine token granted a scope
+     * User tokens never carry client_id, so a user named like a client does not pass
+     * @param token verified token
+     * @param scope required scope
+     * @return true if the token is a machine token of a registered client, its scope claim holds the scope,
+     *         the client is still configured with it and the token carries the client's role
+     */
+    public boolean isClientWithScope(VerifiedToken token, String scope) {
+        Object clientId = token.getClaims().get("client_id");
+        Object granted = token.getClaims().get("scope");
+        if (!(clientId instanceof String) || !clientId.equals(token.getSubject()) || !(granted instanceof String)) {
+            return false;
+        }
+        RegisteredClient client = clients.get(clientId);
+        return client != null
+                && client.role().equals(token.getRole())
+                && client.scopes().contains(scope)
+                && List.of(((String) granted).split(" ")).contains(scope);
+    }
+
+    private IssuedToken sign(String clientId, String role, Set<String> scopes) {
+        String token = jwtUtil.generateClientToken(clientId, role, scopes);
+        return new IssuedToken(token, jwtUtil.verify(token));
+    }
+
+    private boolean isUsable(IssuedToken cached, long now) {
+        VerifiedToken token = cached.verified();
+        return token.getExpiresAtMillis() - refreshMarginMillis > now
+                && !tokenRevocationList.isRevoked(token.getId());
+    }
+
+    /**
+     * @return scopes in a stable order, so equal grants share a cache entry; null if any requested scope is not allowed
+     */
+    private static Set<String> grantedScopes(RegisteredClient client, String requestedScope) {
+        if (requestedScope == null || requestedScope.isBlank()) {
+            return client.scopes();
+        }
+        Set<String> requested = new TreeSet<>(List.of(requestedScope.trim().split("\\s+")));
+        return client.scopes().containsAll(requested) ? requested : null;
+    }
+
+    private Map<String, RegisteredClient> bindClients() {
+        ClientCredentialsProperties properties = environment == null
+                ? new ClientCredentialsProperties()
+                : Binder.get(environment)
+                        .bind("auth", ClientCredentialsProperties.class)
+                        .orElseGet(ClientCredentialsProperties::new);
+        Map<String, RegisteredClient> bound = new HashMap<>();
+        properties.getClients().forEach((clientId, client) -> {
+            if (client.getSecretSha256() == null || client.getSecretSha256().isBlank()) {
+                logger.warn("Client {} has no secret-sha256 and cannot obtain tokens", clientId);
+                return;
+            }
+            bound.put(clientId, new RegisteredClient(HexFormat.of().parseHex(client.getSecretSha256().trim()),
+                    client.getRole(), Collections.unmodifiableSet(new TreeSet<>(client.getScopes()))));
+        });
+        return Map.copyOf(bound);
+    }
+
+    /**
+     * Outcome of a token request
+     * @param token access token, null on error
+     * @param expiresAtMillis exp of the token
+     * @param scope granted scopes, space-separated
+     * @param error OAuth error code (invalid_client, invalid_scope), null on success
+     */
+    public record Grant(String token, long expiresAtMillis, String scope, String error) {
+        static Grant error(String error) {
+            return new Grant(null, 0, null, error);
+        }
+    }
+
+    private record RegisteredClient(byte[] secretSha256, String role, Set<String> scopes) {
+    }
+
+    /**
+     * Signed token together with its verified form, which carries the jti and exp
+     */
+    private record IssuedToken(String value, VerifiedToken verified) {
+    }
+
+    /**
+     * Expires each entry at the exp claim of the token it holds
+     */
+    private static final class IssuedTokenExpiry implements Expiry<String, IssuedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, IssuedToken value, long currentTime) {
+            long remainingMillis = value.verified().getExpiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, IssuedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, IssuedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.layp.GateWayService.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.layp.GateWayService.domain.ValidatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Short-lived cache of credentials USER-SERVICE recently accepted
+ * Lets AuthController answer repeat logins without a USER-SERVICE round trip
+ *
+ * Business rules:
+ * - Disabled by default, entries live for auth.credential-cache.ttl only
+ * - A password that does not match the cached hash falls through to USER-SERVICE, it may have changed
+ * - Role changes invalidate entries through AdminController
+ *
+ * Technical implementation:
+ * - Stores username -> (random salt, PBKDF2-HMAC-SHA256 of the password, role), never the password
+ * - Hashing runs on the bounded elastic scheduler, never on the Netty event loop
+ * - Hit/miss statistics published to Micrometer as cache "auth.credentials"
+ */
+@Component
+public class CredentialCache {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int HASH_BITS = 256;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.credential-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${auth.credential-cache.ttl:60000}")
+    private long ttlMillis;
+
+    @Value("${auth.credential-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${auth.credential-cache.iterations:50000}")
+    private int iterations;
+
+    private Cache<String, CachedCredential> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.credentials");
+    }
+
+    /**
+     * Answers a login from the cache
+     * @param username submitted username
+     * @param password submitted password
+     * @return Mono of the validated user if the credentials match a live entry, empty otherwise
+     */
+    public Mono<ValidatedUser> lookup(String username, String password) {
+        if (!enabled || username == null || password == null) {
+            return Mono.empty();
+        }
+        CachedCredential cached = cache.getIfPresent(username);
+        if (cached == null) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> MessageDigest.isEqual(cached.hash, hash(password, cached.salt))
+                        ? Optional.of(new ValidatedUser(cached.role)) : Optional.<ValidatedUser>empty())
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * Remembers credentials USER-SERVICE just accepted
+     * @param username validated username
+     * @param password validated password, only its salted hash is kept
+     * @param role role USER-SERVICE returned
+     * @return Mono completing once the entry is stored
+     */
+    public Mono<Void> store(String username, String password, String role) {
+        if (!enabled || username == null || password == null) {
+            return Mono.empty();
+        }
+        return Mono.<Void>fromRunnable(() -> {
+                    byte[] salt = new byte[16];
+                    RANDOM.nextBytes(salt);
+                    cache.put(username, new CachedCredential(salt, hash(password, salt), role));
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * @param username user whose cached credentials must be validated again, e.g. after a role change
+     */
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private byte[] hash(String password, byte[] salt) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Salted hash of accepted credentials and the role they map to
+     */
+    private record CachedCredential(byte[] salt, byte[] hash, String role) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.layp.GateWayService.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpResources;
+import reactor.netty.resources.LoopResources;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long tasks wait before a Reactor Netty event loop runs them
+ * Blocking work on a loop (e.g. signature checks) shows up here as lag for every
+ * connection that loop serves
+ *
+ * Technical implementation:
+ * - Each probe submits a no-op task to every server event loop and records submit-to-run time
+ * - Recorded per loop in the reactor.netty.eventloop.lag timer, tagged with the loop index
+ * - Uses the global HttpResources loops, the ones the embedded Netty server runs on
+ */
+@Component
+public class EventLoopLagMonitor {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<EventExecutor> loops = new ArrayList<>();
+    private final List<Timer> timers = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        EventLoopGroup group = HttpResources.get().onServer(LoopResources.DEFAULT_NATIVE);
+        int index = 0;
+        for (EventExecutor loop : group) {
+            loops.add(loop);
+            timers.add(Timer.builder("reactor.netty.eventloop.lag")
+                    .description("Delay between submitting a task to an event loop and the loop running it")
+                    .tag("loop", String.valueOf(index++))
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Sends one probe to every event loop
+     * Technical implementation: runs on the scheduler every probe interval, 1 second by default
+     */
+    @Scheduled(fixedRateString = "${gateway.event-loop.probe-interval:1000}")
+    public void probe() {
+        for (int i = 0; i < loops.size(); i++) {
+            EventExecutor loop = loops.get(i);
+            if (loop.isShuttingDown()) {
+                continue;
+            }
+            Timer timer = timers.get(i);
+            long submittedAt = System.nanoTime();
+            loop.execute(() -> timer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS));
+        }
+    }
+}
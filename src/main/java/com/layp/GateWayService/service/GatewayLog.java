@@ -0,0 +1,296 @@
+package com.layp.GateWayService.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.layp.GateWayService.util.MpscRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured log for the request path: access records and login outcomes
+ * Callers on Netty event loops only enqueue, they never format or touch the disk
+ *
+ * Business rules:
+ * - Each category (access, auth, ...) is sampled at gateway.logging.sampling.<category>, 1.0 by default
+ * - When the buffer is full records are dropped, never waited for; drops are counted per category
+ * - Records are JSON lines in gateway.logging.file, rolled over at max-file-size, max-history files kept
+ *
+ * Technical implementation:
+ * - Records go into an MpscRingBuffer, a lock-free bounded queue
+ * - One daemon thread drains it, formats with a Jackson generator and writes through a buffered stream,
+ *   flushing whenever the buffer runs empty
+ * - Metrics: gateway.log.dropped and gateway.log.sampled-out tagged by category, gateway.log.queued gauge
+ */
+@Component
+public class GatewayLog {
+    private static final Logger logger = LoggerFactory.getLogger(GatewayLog.class);
+
+    private static final int DRAIN_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${gateway.logging.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gateway.logging.file:data/logs/gateway.log}")
+    private String file;
+
+    @Value("${gateway.logging.max-file-size:104857600}")
+    private long maxFileSize;
+
+    @Value("${gateway.logging.max-history:5}")
+    private int maxHistory;
+
+    /**
+     * Records buffered at most, rounded up to a power of two
+     */
+    @Value("${gateway.logging.capacity:65536}")
+    private int capacity;
+
+    private final Map<String, Category> categories = new ConcurrentHashMap<>();
+    private Map<String, Double> sampling = Map.of();
+    private MpscRingBuffer<LogRecord> buffer;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private Path path;
+    private CountingOutputStream out;
+    private JsonGenerator generator;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (environment != null) {
+            sampling = Binder.get(environment)
+                    .bind("gateway.logging.sampling", Bindable.mapOf(String.class, Double.class))
+                    .orElse(Map.of());
+        }
+        buffer = new MpscRingBuffer<>(capacity);
+        Gauge.builder("gateway.log.queued", buffer, MpscRingBuffer::size)
+                .description("Structured log records waiting to be written")
+                .register(meterRegistry);
+        path = Paths.get(file);
+        running = true;
+        writerThread = new Thread(this::drainLoop, "gateway-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues one record, never blocks
+     * @param category sampling and metrics category, e.g. "access" or "auth"
+     * @param event what happened, e.g. "request" or "login"
+     * @param fields alternating field names and values; numbers are written as JSON numbers
+     */
+    public void log(String category, String event, Object... fields) {
+        if (!running) {
+            return;
+        }
+        Category handle = categories.computeIfAbsent(category, this::createCategory);
+        if (handle.rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= handle.rate) {
+            handle.sampledOut.increment();
+            return;
+        }
+        if (!buffer.offer(new LogRecord(System.currentTimeMillis(), category, event, fields))) {
+            handle.dropped.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private Category createCategory(String name) {
+        double rate = sampling.getOrDefault(name, 1.0);
+        Counter dropped = Counter.builder("gateway.log.dropped")
+                .tag("category", name)
+                .description("Log records dropped because the buffer was full")
+                .register(meterRegistry);
+        Counter sampledOut = Counter.builder("gateway.log.sampled-out")
+                .tag("category", name)
+                .description("Log records skipped by sampling")
+                .register(meterRegistry);
+        return new Category(rate, dropped, sampledOut);
+    }
+
+    private void drainLoop() {
+        try {
+            while (running || buffer.size() > 0) {
+                if (buffer.drain(this::write, DRAIN_BATCH) == 0) {
+                    flush();
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } finally {
+            close();
+        }
+    }
+
+    private void write(LogRecord record) {
+        try {
+            if (generator == null) {
+                open();
+            }
+            generator.writeStartObject();
+            generator.writeStringField("ts", Instant.ofEpochMilli(record.timeMillis()).toString());
+            generator.writeStringField("category", record.category());
+            generator.writeStringField("event", record.event());
+            Object[] fields = record.fields();
+            for (int i = 0; i + 1 < fields.length; i += 2) {
+                generator.writeFieldName(String.valueOf(fields[i]));
+                Object value = fields[i + 1];
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Long || value instanceof Integer) {
+                    generator.writeNumber(((Number) value).longValue());
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.doubleValue());
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            if (out.count >= maxFileSize) {
+                close();
+                roll();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not write gateway log {}: {}", path, e.getMessage());
+            close();
+        }
+    }
+
+    private void open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        long existing = Files.exists(path) ? Files.size(path) : 0;
+        out = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024), existing);
+        generator = jsonFactory.createGenerator(out);
+        generator.setRootValueSeparator(null);
+    }
+
+    /**
+     * gateway.log -> gateway.log.1 -> ... -> gateway.log.<max-history>, the oldest is deleted
+     */
+    private void roll() throws IOException {
+        Files.deleteIfExists(rolled(maxHistory));
+        for (int i = maxHistory - 1; i >= 1; i--) {
+            if (Files.exists(rolled(i))) {
+                Files.move(rolled(i), rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxHistory > 0) {
+            Files.move(path, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private Path rolled(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+
+    private void flush() {
+        if (generator == null) {
+            return;
+        }
+        try {
+            generator.flush();
+        } catch (IOException e) {
+            logger.warn("Could not flush gateway log {}: {}", path, e.getMessage());
+            close();
+        }
+    }
+
+    private void close() {
+        if (generator == null) {
+            return;
+        }
+        try {
+            generator.close();
+        } catch (IOException e) {
+            logger.warn("Could not close gateway log {}: {}", path, e.getMessage());
+        } finally {
+            generator = null;
+            out = null;
+        }
+    }
+
+    /**
+     * Sampling rate and counters of one category, created on first use
+     */
+    private record Category(double rate, Counter dropped, Counter sampledOut) {
+    }
+
+    private record LogRecord(long timeMillis, String category, String event, Object[] fields) {
+    }
+
+    /**
+     * Tracks the file size so rolling needs no stat call per record
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out, long count) {
+            super(out);
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.layp.GateWayService.service;
+
+import com.layp.GateWayService.util.SlidingWindowLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Login throttling per client address and per username
+ * Keeps credential-stuffing traffic away from USER-SERVICE
+ *
+ * Business rules:
+ * - At most per-ip-limit logins per client address and per-user-limit logins per username
+ *   in any sliding window
+ * - Throttled attempts are not counted in either dimension, so a client is admitted again once
+ *   it slows down, and one throttled username does not use up its address's budget
+ *
+ * Technical implementation:
+ * - One SlidingWindowLimiter per dimension, fixed memory whatever the number of keys
+ * - Throttled attempts are counted in auth.login.throttled, tagged by dimension
+ */
+@Component
+public class LoginRateLimiter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.rate-limit.window:60000}")
+    private long windowMillis;
+
+    @Value("${auth.rate-limit.per-user-limit:10}")
+    private int perUserLimit;
+
+    @Value("${auth.rate-limit.per-ip-limit:50}")
+    private int perIpLimit;
+
+    /**
+     * Cells per row of each limiter, memory is 8 bytes * cells * rows per dimension
+     */
+    @Value("${auth.rate-limit.cells:65536}")
+    private int cells;
+
+    @Value("${auth.rate-limit.rows:3}")
+    private int rows;
+
+    private SlidingWindowLimiter byUser;
+    private SlidingWindowLimiter byIp;
+    private Counter userThrottled;
+    private Counter ipThrottled;
+
+    @PostConstruct
+    public void init() {
+        byUser = new SlidingWindowLimiter(cells, rows, windowMillis);
+        byIp = new SlidingWindowLimiter(cells, rows, windowMillis);
+        userThrottled = Counter.builder("auth.login.throttled")
+                .tag("dimension", "user")
+                .description("Login attempts refused by the rate limiter")
+                .register(meterRegistry);
+        ipThrottled = Counter.builder("auth.login.throttled")
+                .tag("dimension", "ip")
+                .description("Login attempts refused by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits or throttles one login attempt
+     * @param clientAddress remote address of the caller
+     * @param username submitted username, may be null
+     * @return 0 if the attempt may proceed, otherwise seconds the caller should wait
+     */
+    public long tryAcquire(String clientAddress, String username) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        long wait = byIp.waitMillis(clientAddress, perIpLimit, now);
+        if (wait > 0) {
+            ipThrottled.increment();
+            return toSeconds(wait);
+        }
+        if (username != null) {
+            wait = byUser.waitMillis(username, perUserLimit, now);
+            if (wait > 0) {
+                userThrottled.increment();
+                return toSeconds(wait);
+            }
+        }
+        // Both limits passed, only now is the attempt charged to each dimension
+        byIp.record(clientAddress, now);
+        if (username != null) {
+            byUser.record(username, now);
+        }
+        return 0;
+    }
+
+    private static long toSeconds(long millis) {
+        return (millis + 999) / 1000;
+    }
+}
@@ -0,0 +1,165 @@
+package com.layp.GateWayService.service;
+
+import com.layp.GateWayService.util.TokenHash;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * File-backed store of rotating refresh tokens
+ * Lets AuthController issue new access tokens without a USER-SERVICE round trip
+ *
+ * Business rules:
+ * - Each refresh token is single use, redeeming it issues its successor in the same family
+ * - Redeeming an already used token is treated as theft and revokes the whole family
+ *
+ * Technical implementation:
+ * - Embedded H2 MVStore, survives gateway restarts
+ * - Tokens are stored under their SHA-256, never in plaintext
+ * - Rotation marks the old token used with a compare-and-set, so two concurrent
+ *   redemptions cannot both succeed
+ */
+@Component
+public class RefreshTokenStore {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenStore.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Value("${auth.refresh.store-path:data/refresh-tokens.mv}")
+    private String storePath;
+
+    /**
+     * Refresh token lifetime in milliseconds, default 14 days
+     */
+    @Value("${auth.refresh.expiration:1209600000}")
+    private long expirationTime;
+
+    private MVStore store;
+    private MVMap<String, RefreshTokenRecord> tokens;
+    private MVMap<String, Long> revokedFamilies;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path path = Path.of(storePath).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        store = new MVStore.Builder()
+                .fileName(path.toString())
+                .compress()
+                .open();
+        tokens = store.openMap("refreshTokens");
+        revokedFamilies = store.openMap("revokedFamilies");
+    }
+
+    @PreDestroy
+    public void close() {
+        store.close();
+    }
+
+    /**
+     * Starts a new token family after a successful login
+     * @param username subject of the access tokens the family may mint
+     * @param role role of the access tokens the family may mint
+     * @return new refresh token
+     */
+    public String issue(String username, String role) {
+        return store(newId(), username, role);
+    }
+
+    /**
+     * Redeems a refresh token and issues its successor
+     * @param refreshToken token presented by the client
+     * @return rotation result, or null when the token is unknown, expired, used or revoked
+     */
+    public Rotation rotate(String refreshToken) {
+        String key = TokenHash.of(refreshToken);
+        RefreshTokenRecord current = tokens.get(key);
+        if (current == null || revokedFamilies.containsKey(current.familyId)) {
+            return null;
+        }
+        if (current.used || !tokens.replace(key, current, current.markUsed())) {
+            logger.warn("Refresh token reuse detected for user {}, revoking token family", current.username);
+            revokedFamilies.put(current.familyId, System.currentTimeMillis() + expirationTime);
+            return null;
+        }
+        if (current.expiresAtMillis <= System.currentTimeMillis()) {
+            return null;
+        }
+        String successor = store(current.familyId, current.username, current.role);
+        return new Rotation(successor, current.username, current.role);
+    }
+
+    /**
+     * Removes expired tokens and family revocations that can no longer match a live token
+     * Technical implementation: runs on the scheduler once an hour
+     */
+    @Scheduled(fixedDelayString = "${auth.refresh.purge-interval:3600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        tokens.entrySet().removeIf(entry -> entry.getValue().expiresAtMillis <= now);
+        revokedFamilies.entrySet().removeIf(entry -> entry.getValue() <= now);
+    }
+
+    private String store(String familyId, String username, String role) {
+        String token = newId();
+        tokens.put(TokenHash.of(token), new RefreshTokenRecord(
+                familyId, username, role, System.currentTimeMillis() + expirationTime, false));
+        return token;
+    }
+
+    private static String newId() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Outcome of a successful refresh: the successor token and the identity to mint an access token for
+     */
+    public static final class Rotation {
+        private final String refreshToken;
+        private final String username;
+        private final String role;
+
+        private Rotation(String refreshToken, String username, String role) {
+            this.refreshToken = refreshToken;
+            this.username = username;
+            this.role = role;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getRole() {
+            return role;
+        }
+    }
+
+    /**
+     * Stored state of one refresh token
+     */
+    private record RefreshTokenRecord(String familyId, String username, String role,
+                                      long expiresAtMillis, boolean used) implements Serializable {
+
+        private RefreshTokenRecord markUsed() {
+            return new RefreshTokenRecord(familyId, username, role, expiresAtMillis, true);
+        }
+    }
+}
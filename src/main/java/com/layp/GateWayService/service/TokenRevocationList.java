@@ -0,0 +1,151 @@
+package com.layp.GateWayService.service;
+
+import com.layp.GateWayService.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory list of tokens revoked before their exp
+ * Checked by AuthenticationFilter on every request, so the common
+ * "not revoked" answer must cost no more than a few memory reads
+ *
+ * Technical implementation:
+ * - Revoked jti values are grouped into time slots by the token's exp
+ * - Each slot has a Bloom filter, the exact set is consulted only on a Bloom hit
+ * - Lookups go by jti alone across the live slots (max token lifetime / slot width of them),
+ *   so a revocation filed under a slightly different exp still matches
+ * - A slot is dropped as a whole once every token it covers has expired,
+ *   so memory tracks live revocations rather than all revocations ever made
+ */
+@Component
+public class TokenRevocationList {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Width of an expiry slot in milliseconds, one Bloom filter per slot
+     */
+    @Value("${jwt.revocation.slot-millis:900000}")
+    private long slotMillis;
+
+    /**
+     * Revocations each slot's Bloom filter is sized for
+     */
+    @Value("${jwt.revocation.expected-per-slot:100000}")
+    private long expectedPerSlot;
+
+    @Value("${jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+
+    /**
+     * Copy of the slot values for the lookup path, replaced whenever a slot is added or dropped
+     */
+    private volatile Slot[] liveSlots = new Slot[0];
+    private final AtomicLong revokedCount = new AtomicLong();
+    private Counter bloomFalsePositives;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("jwt.revocation.size", revokedCount, AtomicLong::get)
+                .description("Revoked tokens not yet expired")
+                .register(meterRegistry);
+        bloomFalsePositives = Counter.builder("jwt.revocation.bloom.false-positives")
+                .description("Bloom filter hits not confirmed by the exact set")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Revokes a token until its expiry
+     * @param tokenId jti claim of the token
+     * @param expiresAtMillis exp of the token in milliseconds
+     * @return true if the token is now revoked, false if it had already expired
+     */
+    public boolean revoke(String tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return false;
+        }
+        Slot slot = slots.get(slotOf(expiresAtMillis));
+        if (slot == null) {
+            synchronized (this) {
+                slot = slots.computeIfAbsent(slotOf(expiresAtMillis),
+                        key -> new Slot(new BloomFilter(expectedPerSlot, falsePositiveRate)));
+                liveSlots = slots.values().toArray(new Slot[0]);
+            }
+        }
+        // Exact set first, so a Bloom hit always finds its entry
+        if (slot.exact.add(tokenId)) {
+            slot.bloom.put(tokenId);
+            revokedCount.incrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a token has been revoked
+     * @param tokenId jti claim of the token, tokens without one cannot be revoked
+     * @return true if the token was revoked
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        for (Slot slot : liveSlots) {
+            if (slot.bloom.mightContain(tokenId)) {
+                if (slot.exact.contains(tokenId)) {
+                    return true;
+                }
+                bloomFalsePositives.increment();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops slots whose tokens have all expired
+     * Technical implementation: runs on the scheduler every slot width
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.slot-millis:900000}")
+    public synchronized void purgeExpired() {
+        long currentSlot = slotOf(System.currentTimeMillis());
+        boolean removed = slots.entrySet().removeIf(entry -> {
+            if (entry.getKey() < currentSlot) {
+                revokedCount.addAndGet(-entry.getValue().exact.size());
+                return true;
+            }
+            return false;
+        });
+        if (removed) {
+            liveSlots = slots.values().toArray(new Slot[0]);
+        }
+    }
+
+    private long slotOf(long expiresAtMillis) {
+        return expiresAtMillis / slotMillis;
+    }
+
+    /**
+     * Revocations for tokens expiring within one slot
+     */
+    private static final class Slot {
+        private final BloomFilter bloom;
+        private final Set<String> exact = ConcurrentHashMap.newKeySet();
+
+        private Slot(BloomFilter bloom) {
+            this.bloom = bloom;
+        }
+    }
+}
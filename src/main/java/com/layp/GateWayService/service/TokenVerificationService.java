@@ -0,0 +1,162 @@
+package com.layp.GateWayService.service;
+
+import com.layp.GateWayService.domain.VerifiedToken;
+import com.layp.GateWayService.util.JwtUtil;
+import com.layp.GateWayService.util.TokenHash;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reactive front door for bearer token verification
+ * Keeps expensive signature checks off the Reactor Netty event loop
+ *
+ * Business flow:
+ * 1. Cached tokens are answered inline, tokens that recently failed are rejected inline
+ * 2. HS256 tokens with a header the gateway itself emits are verified inline,
+ *    an HS256 check costs about as much as the hop to another thread
+ * 3. Every other token (ES256, unknown or crafted headers) is verified on a bounded CPU-sized scheduler,
+ *    as is every token of a batch caller (verifyOffloaded)
+ * 4. Revoked tokens are rejected
+ *
+ * Technical implementation:
+ * - The inline decision matches the encoded header against the exact HS256 headers of the current
+ *   key ring (JwtUtil.hasHs256Header), the header JSON is never interpreted on the event loop
+ * - The token's SHA-256 is computed once and used for the verified and the negative cache
+ * - At most threads + queue-capacity verifications are in flight, beyond that the Mono fails
+ *   immediately with RejectedExecutionException so the caller can answer 503
+ * - In-flight count and rejections are published as jwt.verify.offload.* meters
+ */
+@Component
+public class TokenVerificationService {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private AuthFailureTracker authFailureTracker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.offload.enabled:true}")
+    private boolean offloadEnabled;
+
+    /**
+     * Verification threads, 0 means one per available processor
+     */
+    @Value("${jwt.offload.threads:0}")
+    private int threads;
+
+    /**
+     * Verifications allowed to wait for a thread before new ones are rejected
+     */
+    @Value("${jwt.offload.queue-capacity:1000}")
+    private int queueCapacity;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private Scheduler scheduler;
+    private int maxInFlight;
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        int threadCap = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        maxInFlight = threadCap + queueCapacity;
+        // The scheduler's own cap is per worker, the global limit is enforced by inFlight
+        scheduler = Schedulers.newBoundedElastic(threadCap, maxInFlight, "jwt-verify");
+        Gauge.builder("jwt.verify.offload.in-flight", inFlight, AtomicInteger::get)
+                .description("Token verifications running or queued on the verification scheduler")
+                .register(meterRegistry);
+        rejected = Counter.builder("jwt.verify.offload.rejected")
+                .description("Token verifications rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.dispose();
+    }
+
+    /**
+     * Verifies a bearer token
+     * @param token JWT token string without the "Bearer " prefix
+     * @return Mono of the verified token; fails with JwtException (or another RuntimeException)
+     *         for an invalid or revoked token and RejectedExecutionException when overloaded
+     */
+    public Mono<VerifiedToken> verify(String token) {
+        return verify(token, true);
+    }
+
+    /**
+     * Verifies a token for a batch caller
+     * Every cache miss runs on the verification scheduler, HS256 included, so concurrent calls
+     * are spread over its threads instead of being verified one after another on the event loop
+     * @param token JWT token string without the "Bearer " prefix
+     * @return Mono of the verified token, failing like verify(String)
+     */
+    public Mono<VerifiedToken> verifyOffloaded(String token) {
+        return verify(token, false);
+    }
+
+    private Mono<VerifiedToken> verify(String token, boolean inlineHs256) {
+        String tokenHash = TokenHash.of(token);
+        VerifiedToken cached = verifiedTokenCache.getIfPresent(tokenHash);
+        if (cached != null) {
+            return checkRevoked(cached);
+        }
+        if (authFailureTracker.isKnownInvalid(tokenHash)) {
+            return Mono.error(new JwtException("Token recently failed verification"));
+        }
+        Mono<VerifiedToken> verified;
+        if (!offloadEnabled || (inlineHs256 && jwtUtil.hasHs256Header(token))) {
+            try {
+                verified = checkRevoked(verifiedTokenCache.verify(token, tokenHash));
+            } catch (RuntimeException e) {
+                verified = Mono.error(e);
+            }
+        } else {
+            verified = offload(token, tokenHash).flatMap(this::checkRevoked);
+        }
+        return verified.doOnError(e -> !(e instanceof RejectedExecutionException),
+                e -> authFailureTracker.markInvalid(tokenHash));
+    }
+
+    private Mono<VerifiedToken> offload(String token, String tokenHash) {
+        return Mono.defer(() -> {
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                return Mono.error(new RejectedExecutionException("Token verification queue is full"));
+            }
+            return Mono.fromCallable(() -> verifiedTokenCache.verify(token, tokenHash))
+                    .subscribeOn(scheduler)
+                    .doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    private Mono<VerifiedToken> checkRevoked(VerifiedToken verified) {
+        if (revocationList.isRevoked(verified.getId())) {
+            return Mono.error(new JwtException("Revoked token"));
+        }
+        return Mono.just(verified);
+    }
+}
@@ -0,0 +1,145 @@
+package com.layp.GateWayService.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.layp.GateWayService.domain.VerifiedToken;
+import com.layp.GateWayService.util.JwtUtil;
+import com.layp.GateWayService.util.TokenHash;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory cache of verified tokens placed in front of JwtUtil
+ * Clients resend the same bearer token many times, so repeat requests
+ * are answered from memory without an HMAC check or JSON decode
+ *
+ * Technical implementation:
+ * - Keyed by the SHA-256 of the token, the raw token is never stored
+ * - Size-bounded Caffeine cache, each entry expires at the token's own exp
+ * - Hit/miss/eviction statistics published to Micrometer as cache "jwt.verified"
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jwt.cache.max-size:100000}")
+    private long maxSize;
+
+    private Cache<String, VerifiedToken> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified");
+    }
+
+    /**
+     * Returns the verified token, consulting the cache before the parser
+     * Business use: authentication hot path in AuthenticationFilter
+     * @param token JWT token string
+     * @return VerifiedToken for a valid, unexpired token
+     * @throws io.jsonwebtoken.JwtException if the token fails verification
+     */
+    public VerifiedToken verify(String token) {
+        return verify(token, enabled ? TokenHash.of(token) : null);
+    }
+
+    /**
+     * Same as verify(String) for callers that already hold the token's hash
+     * @param token JWT token string
+     * @param tokenHash TokenHash.of(token)
+     * @return VerifiedToken for a valid, unexpired token
+     * @throws io.jsonwebtoken.JwtException if the token fails verification
+     */
+    public VerifiedToken verify(String token, String tokenHash) {
+        if (!enabled) {
+            return jwtUtil.verify(token);
+        }
+        VerifiedToken cached = cache.getIfPresent(tokenHash);
+        if (cached != null && !cached.isExpired(System.currentTimeMillis())) {
+            return cached;
+        }
+        VerifiedToken verified = jwtUtil.verify(token);
+        cache.put(tokenHash, verified);
+        return verified;
+    }
+
+    /**
+     * Looks a token up without verifying it on a miss
+     * Lets callers decide where a miss is verified, see TokenVerificationService
+     * @param tokenHash TokenHash.of the JWT token string
+     * @return cached VerifiedToken, or null if absent, expired or the cache is disabled
+     */
+    public VerifiedToken getIfPresent(String tokenHash) {
+        if (!enabled) {
+            return null;
+        }
+        VerifiedToken cached = cache.getIfPresent(tokenHash);
+        return cached != null && !cached.isExpired(System.currentTimeMillis()) ? cached : null;
+    }
+
+    /**
+     * Drops every cached verification, e.g. after signing keys change
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Invalidates the cache after JwtUtil has rebuilt its keys on config refresh
+     * so tokens signed with a replaced secret are not served from memory
+     * @param event change event listing the refreshed property keys
+     */
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith("jwt."))) {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Expires each entry at the exp claim of the token it holds
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.getExpiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
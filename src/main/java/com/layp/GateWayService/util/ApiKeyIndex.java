@@ -0,0 +1,167 @@
+package com.layp.GateWayService.util;
+
+import com.layp.GateWayService.domain.ApiClient;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable lookup table from API-key SHA-256 digests to the owning client
+ * Sized for millions of keys with a few dozen bytes of heap each
+ *
+ * Technical implementation:
+ * - Open addressing with linear probing over primitive arrays, load factor at most 0.75
+ * - Each slot holds the first 128 bits of the digest as two longs, so finding a colliding
+ *   key costs a 2^128 search rather than the 2^64 a single long would allow
+ * - Client ids live in one UTF-8 byte arena addressed by offsets, roles are deduplicated
+ *   into a small table referenced by one byte per key
+ * - Never mutated after build(), so readers need no locks; reloading builds a new index
+ */
+public final class ApiKeyIndex {
+
+    private static final int MAX_ROLES = 256;
+
+    private final long[] fingerprints;
+    private final int[] slots;
+    private final int mask;
+    private final byte[] clientIdArena;
+    private final int[] clientIdOffsets;
+    private final byte[] roleIndexes;
+    private final String[] roles;
+    private final int size;
+
+    private ApiKeyIndex(long[] fingerprints, int[] slots, byte[] clientIdArena, int[] clientIdOffsets,
+                        byte[] roleIndexes, String[] roles, int size) {
+        this.fingerprints = fingerprints;
+        this.slots = slots;
+        this.mask = slots.length - 1;
+        this.clientIdArena = clientIdArena;
+        this.clientIdOffsets = clientIdOffsets;
+        this.roleIndexes = roleIndexes;
+        this.roles = roles;
+        this.size = size;
+    }
+
+    /**
+     * @return an index without keys
+     */
+    public static ApiKeyIndex empty() {
+        return new Builder().build();
+    }
+
+    /**
+     * @param sha256 32-byte SHA-256 digest of the presented key
+     * @return owning client, or null if the key is unknown
+     */
+    public ApiClient lookup(byte[] sha256) {
+        long high = readLong(sha256, 0);
+        long low = readLong(sha256, 8);
+        int slot = (int) (low ^ (low >>> 32)) & mask;
+        while (true) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return null;
+            }
+            if (fingerprints[slot << 1] == high && fingerprints[(slot << 1) + 1] == low) {
+                int index = entry - 1;
+                int start = clientIdOffsets[index];
+                String clientId = new String(clientIdArena, start, clientIdOffsets[index + 1] - start,
+                        StandardCharsets.UTF_8);
+                return new ApiClient(clientId, roles[roleIndexes[index] & 0xff]);
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * @return number of keys in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xffL);
+        }
+        return value;
+    }
+
+    /**
+     * Collects keys, then lays them out into the probe table in one pass
+     */
+    public static final class Builder {
+        private final List<byte[]> digests = new ArrayList<>();
+        private final ByteArrayOutputStream clientIds = new ByteArrayOutputStream();
+        private int[] offsets = new int[16];
+        private byte[] roleIndexes = new byte[16];
+        private final Map<String, Integer> roleTable = new HashMap<>();
+        private final List<String> roles = new ArrayList<>();
+
+        /**
+         * @param sha256 32-byte SHA-256 digest of the key, a later duplicate replaces an earlier one
+         * @param clientId client the key belongs to
+         * @param role role granted to requests made with the key
+         * @return this builder
+         */
+        public Builder add(byte[] sha256, String clientId, String role) {
+            if (sha256.length != 32) {
+                throw new IllegalArgumentException("Expected a 32-byte SHA-256 digest");
+            }
+            int index = digests.size();
+            if (index + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                roleIndexes = Arrays.copyOf(roleIndexes, roleIndexes.length * 2);
+            }
+            Integer roleIndex = roleTable.get(role);
+            if (roleIndex == null) {
+                if (roles.size() == MAX_ROLES) {
+                    throw new IllegalArgumentException("API keys may use at most " + MAX_ROLES + " distinct roles");
+                }
+                roleIndex = roles.size();
+                roleTable.put(role, roleIndex);
+                roles.add(role);
+            }
+            digests.add(sha256);
+            byte[] id = clientId.getBytes(StandardCharsets.UTF_8);
+            clientIds.write(id, 0, id.length);
+            offsets[index + 1] = clientIds.size();
+            roleIndexes[index] = (byte) (int) roleIndex;
+            return this;
+        }
+
+        public ApiKeyIndex build() {
+            int count = digests.size();
+            int capacity = Integer.highestOneBit(Math.max(count * 4 / 3 + 1, 2) - 1) << 1;
+            long[] fingerprints = new long[capacity * 2];
+            int[] slots = new int[capacity];
+            int mask = capacity - 1;
+            int size = 0;
+            for (int index = 0; index < count; index++) {
+                byte[] digest = digests.get(index);
+                long high = readLong(digest, 0);
+                long low = readLong(digest, 8);
+                int slot = (int) (low ^ (low >>> 32)) & mask;
+                while (slots[slot] != 0
+                        && (fingerprints[slot << 1] != high || fingerprints[(slot << 1) + 1] != low)) {
+                    slot = (slot + 1) & mask;
+                }
+                if (slots[slot] == 0) {
+                    size++;
+                }
+                fingerprints[slot << 1] = high;
+                fingerprints[(slot << 1) + 1] = low;
+                slots[slot] = index + 1;
+            }
+            return new ApiKeyIndex(fingerprints, slots, clientIds.toByteArray(),
+                    Arrays.copyOf(offsets, count + 1), Arrays.copyOf(roleIndexes, Math.max(count, 1)),
+                    roles.toArray(new String[0]), size);
+        }
+    }
+}
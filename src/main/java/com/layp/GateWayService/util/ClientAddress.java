@@ -0,0 +1,27 @@
+package com.layp.GateWayService.util;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Identifies the caller for failure counting and rate limiting
+ * Forwarded headers are not consulted, a client could set them to dodge its limits
+ */
+public final class ClientAddress {
+
+    private ClientAddress() {
+    }
+
+    /**
+     * @param request incoming request
+     * @return remote IP address, or "unknown" when the connection has none
+     */
+    public static String of(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        if (remote == null) {
+            return "unknown";
+        }
+        return remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.layp.GateWayService.util;
+
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * Loads EC keys from configuration values
+ * Accepts PEM text or bare base64 of the DER encoding (PKCS#8 private, X.509 public)
+ * Only P-256 keys are accepted, the curve ES256 and the JWKS document are defined for
+ */
+public final class EcKeys {
+
+    private static final ECParameterSpec P256 = p256();
+
+    private EcKeys() {
+    }
+
+    /**
+     * @param encoded PKCS#8 private key as PEM or base64 DER
+     * @return EC private key
+     * @throws IllegalStateException if the key cannot be decoded or is not on P-256
+     */
+    public static PrivateKey parsePrivateKey(String encoded) {
+        try {
+            PrivateKey key = KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(decode(encoded)));
+            requireP256((ECKey) key);
+            return key;
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid EC private key", e);
+        }
+    }
+
+    /**
+     * @param encoded X.509 public key as PEM or base64 DER
+     * @return EC public key
+     * @throws IllegalStateException if the key cannot be decoded or is not on P-256
+     */
+    public static PublicKey parsePublicKey(String encoded) {
+        try {
+            PublicKey key = KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(decode(encoded)));
+            requireP256((ECKey) key);
+            return key;
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid EC public key", e);
+        }
+    }
+
+    private static void requireP256(ECKey key) {
+        ECParameterSpec params = key.getParams();
+        if (!P256.getCurve().equals(params.getCurve())
+                || !P256.getOrder().equals(params.getOrder())
+                || !P256.getGenerator().equals(params.getGenerator())
+                || P256.getCofactor() != params.getCofactor()) {
+            throw new IllegalStateException("EC key is not on curve P-256, ES256 requires P-256");
+        }
+    }
+
+    private static ECParameterSpec p256() {
+        try {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            return parameters.getParameterSpec(ECParameterSpec.class);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("P-256 not available", e);
+        }
+    }
+
+    private static byte[] decode(String encoded) {
+        String base64 = encoded
+                .replaceAll("-----[A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+}
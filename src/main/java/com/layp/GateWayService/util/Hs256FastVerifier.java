@@ -0,0 +1,411 @@
+package com.layp.GateWayService.util;
+
+import com.layp.GateWayService.domain.VerifiedToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fast verifier for compact HS256 tokens issued by this gateway
+ * Avoids the String/Map allocation and Jackson tree building of the jjwt parse path:
+ * only jti, sub, role, exp and the machine-token claims scope and client_id are copied out of the payload
+ *
+ * Technical implementation:
+ * - Accepts only the exact header encodings the gateway emits (Hs256Headers), kid-less or with
+ *   the kid of an HS256 ring key; anything else returns null so the caller falls back to jjwt
+ * - Base64url-decodes into per-thread buffers and signs with a per-thread Mac
+ * - Compares signatures in constant time
+ * - Scans the flat payload once, skipping claims it does not read; escapes, nesting,
+ *   fractional or over-long numbers, a non-numeric exp or an nbf claim fall back to jjwt
+ */
+public final class Hs256FastVerifier {
+
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int SIGNATURE_CHARS = 43;
+
+    /**
+     * Longer integers could overflow a long, they go to jjwt
+     */
+    private static final int MAX_DIGITS = 18;
+
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final Hs256Headers headers;
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * @param key HMAC-SHA256 key for kid-less tokens
+     */
+    public Hs256FastVerifier(SecretKey key) {
+        this(key, Map.of());
+    }
+
+    /**
+     * @param key HMAC-SHA256 key for kid-less tokens, null to leave them to jjwt
+     * @param keysById HMAC-SHA256 ring keys, matched by the kid in the header
+     */
+    public Hs256FastVerifier(SecretKey key, Map<String, SecretKey> keysById) {
+        List<String> keyIds = new ArrayList<>();
+        List<SecretKey> keys = new ArrayList<>();
+        if (key != null) {
+            keys.add(key);
+        }
+        for (Map.Entry<String, SecretKey> entry : keysById.entrySet()) {
+            keyIds.add(entry.getKey());
+            keys.add(entry.getValue());
+        }
+        this.headers = new Hs256Headers(key != null, keyIds);
+        SecretKey[] macKeys = keys.toArray(new SecretKey[0]);
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(macKeys));
+    }
+
+    /**
+     * Verifies a compact HS256 token without going through jjwt
+     * @param token JWT token string
+     * @param nowMillis current time in milliseconds
+     * @return VerifiedToken, or null when the token is outside the fast-path shape
+     * @throws SignatureException if the signature does not match
+     * @throws ExpiredJwtException if the token has expired
+     */
+    public VerifiedToken verify(String token, long nowMillis) {
+        int keyIndex = headers.keyIndex(token);
+        if (keyIndex < 0) {
+            return null;
+        }
+        int firstDot = token.indexOf('.');
+        int secondDot = token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.length() - secondDot - 1 != SIGNATURE_CHARS) {
+            return null;
+        }
+
+        Scratch buffers = scratch.get();
+        byte[] input = buffers.input(secondDot);
+        for (int i = 0; i < secondDot; i++) {
+            char c = token.charAt(i);
+            if (c > 127) {
+                return null;
+            }
+            input[i] = (byte) c;
+        }
+        if (decode(token, secondDot + 1, token.length(), buffers.signature) != SIGNATURE_LENGTH) {
+            return null;
+        }
+        try {
+            Mac mac = buffers.macs[keyIndex];
+            mac.update(input, 0, secondDot);
+            mac.doFinal(buffers.expected, 0);
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+        if (!constantTimeEquals(buffers.expected, buffers.signature)) {
+            throw new SignatureException("JWT signature does not match locally computed signature");
+        }
+
+        byte[] payload = buffers.payload(secondDot - firstDot);
+        int payloadLength = decode(token, firstDot + 1, secondDot, payload);
+        if (payloadLength < 0) {
+            return null;
+        }
+        return scanPayload(payload, payloadLength, nowMillis);
+    }
+
+    /**
+     * Decodes unpadded base64url characters into the target buffer
+     * @return number of bytes written, or -1 on an invalid character or length
+     */
+    private static int decode(String source, int from, int to, byte[] target) {
+        int length = to - from;
+        if (length % 4 == 1) {
+            return -1;
+        }
+        int out = 0;
+        int bits = 0;
+        int bitCount = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                target[out++] = (byte) (bits >> bitCount);
+            }
+        }
+        return out;
+    }
+
+    private static boolean constantTimeEquals(byte[] a, byte[] b) {
+        int diff = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            diff |= a[i] ^ b[i];
+        }
+        return diff == 0;
+    }
+
+    /**
+     * Single pass over a flat JSON object picking out jti, sub, role, exp, scope and client_id
+     * Every other value is checked for well-formed JSON and skipped without being copied
+     * @return VerifiedToken, or null when the payload needs the full parser
+     */
+    private static VerifiedToken scanPayload(byte[] json, int length, long nowMillis) {
+        String id = null;
+        String subject = null;
+        String role = null;
+        String scope = null;
+        String clientId = null;
+        long exp = -1;
+
+        int i = skipWhitespace(json, 0, length);
+        if (i >= length || json[i] != '{') {
+            return null;
+        }
+        i = skipWhitespace(json, i + 1, length);
+        if (i < length && json[i] == '}') {
+            return null;
+        }
+        while (i < length) {
+            if (json[i] != '"') {
+                return null;
+            }
+            int keyStart = i + 1;
+            int keyEnd = indexOfQuote(json, keyStart, length);
+            if (keyEnd < 0) {
+                return null;
+            }
+            if (keyEquals(json, keyStart, keyEnd, "nbf")) {
+                return null;
+            }
+            boolean isId = keyEquals(json, keyStart, keyEnd, "jti");
+            boolean isSubject = keyEquals(json, keyStart, keyEnd, "sub");
+            boolean isRole = keyEquals(json, keyStart, keyEnd, "role");
+            boolean isExp = keyEquals(json, keyStart, keyEnd, "exp");
+            boolean isScope = keyEquals(json, keyStart, keyEnd, "scope");
+            boolean isClientId = keyEquals(json, keyStart, keyEnd, "client_id");
+            boolean isString = isId || isSubject || isRole || isScope || isClientId;
+            i = skipWhitespace(json, keyEnd + 1, length);
+            if (i >= length || json[i] != ':') {
+                return null;
+            }
+            i = skipWhitespace(json, i + 1, length);
+            if (i >= length) {
+                return null;
+            }
+
+            int valueEnd;
+            byte first = json[i];
+            if (first == '"') {
+                valueEnd = indexOfQuote(json, i + 1, length);
+                if (valueEnd < 0 || isExp) {
+                    return null;
+                }
+                if (isId) {
+                    id = new String(json, i + 1, valueEnd - i - 1, StandardCharsets.UTF_8);
+                } else if (isSubject) {
+                    subject = new String(json, i + 1, valueEnd - i - 1, StandardCharsets.UTF_8);
+                } else if (isRole) {
+                    role = new String(json, i + 1, valueEnd - i - 1, StandardCharsets.UTF_8);
+                } else if (isScope) {
+                    scope = new String(json, i + 1, valueEnd - i - 1, StandardCharsets.UTF_8);
+                } else if (isClientId) {
+                    clientId = new String(json, i + 1, valueEnd - i - 1, StandardCharsets.UTF_8);
+                }
+                valueEnd++;
+            } else if (first == '-' || (first >= '0' && first <= '9')) {
+                int digitsStart = first == '-' ? i + 1 : i;
+                valueEnd = digitsStart;
+                long number = 0;
+                while (valueEnd < length && json[valueEnd] >= '0' && json[valueEnd] <= '9') {
+                    if (valueEnd - digitsStart == MAX_DIGITS) {
+                        return null;
+                    }
+                    number = number * 10 + (json[valueEnd] - '0');
+                    valueEnd++;
+                }
+                int digits = valueEnd - digitsStart;
+                if (digits == 0 || (digits > 1 && json[digitsStart] == '0')) {
+                    return null;
+                }
+                if (valueEnd < length && (json[valueEnd] == '.' || json[valueEnd] == 'e' || json[valueEnd] == 'E')) {
+                    return null;
+                }
+                if (isString) {
+                    return null;
+                }
+                if (isExp) {
+                    // Seconds past this overflow as milliseconds; jjwt reports such tokens its own way
+                    if (first == '-' || number > Long.MAX_VALUE / 1000) {
+                        return null;
+                    }
+                    exp = number;
+                }
+            } else if (literalAt(json, i, length, "null")) {
+                valueEnd = i + 4;
+                // jjwt keeps no entry for a null claim either
+                if (isId) {
+                    id = null;
+                } else if (isSubject) {
+                    subject = null;
+                } else if (isRole) {
+                    role = null;
+                } else if (isScope) {
+                    scope = null;
+                } else if (isClientId) {
+                    clientId = null;
+                } else if (isExp) {
+                    exp = -1;
+                }
+            } else if (literalAt(json, i, length, "true") || literalAt(json, i, length, "false")) {
+                if (isString || isExp) {
+                    return null;
+                }
+                valueEnd = i + (first == 't' ? 4 : 5);
+            } else {
+                return null;
+            }
+
+            i = skipWhitespace(json, valueEnd, length);
+            if (i >= length) {
+                return null;
+            }
+            if (json[i] == '}') {
+                break;
+            }
+            if (json[i] != ',') {
+                return null;
+            }
+            i = skipWhitespace(json, i + 1, length);
+        }
+        if (i >= length || skipWhitespace(json, i + 1, length) != length || exp < 0) {
+            return null;
+        }
+
+        long expiresAtMillis = exp * 1000;
+        if (expiresAtMillis <= nowMillis) {
+            throw new ExpiredJwtException(null, null, "JWT expired");
+        }
+        Map<String, Object> claims = new HashMap<>(8);
+        if (id != null) {
+            claims.put("jti", id);
+        }
+        if (subject != null) {
+            claims.put("sub", subject);
+        }
+        if (role != null) {
+            claims.put("role", role);
+        }
+        if (scope != null) {
+            claims.put("scope", scope);
+        }
+        if (clientId != null) {
+            claims.put("client_id", clientId);
+        }
+        // Same boxing as jjwt's Jackson decode
+        claims.put("exp", exp <= Integer.MAX_VALUE ? (Object) (int) exp : (Object) exp);
+        return new VerifiedToken(id, subject, role, expiresAtMillis, claims);
+    }
+
+    private static boolean literalAt(byte[] json, int i, int length, String literal) {
+        if (length - i < literal.length()) {
+            return false;
+        }
+        for (int j = 0; j < literal.length(); j++) {
+            if (json[i + j] != literal.charAt(j)) {
+                return false;
+            }
+        }
+        int next = i + literal.length();
+        return next == length || !(json[next] >= 'a' && json[next] <= 'z');
+    }
+
+    private static int skipWhitespace(byte[] json, int i, int length) {
+        while (i < length && (json[i] == ' ' || json[i] == '\t' || json[i] == '\n' || json[i] == '\r')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Finds the closing quote of a string, returning -1 on escapes so the full parser handles them
+     */
+    private static int indexOfQuote(byte[] json, int i, int length) {
+        for (; i < length; i++) {
+            if (json[i] == '"') {
+                return i;
+            }
+            if (json[i] == '\\') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean keyEquals(byte[] json, int start, int end, String key) {
+        if (end - start != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (json[start + i] != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Per-thread Macs and reusable buffers
+     */
+    private static final class Scratch {
+        private final Mac[] macs;
+        private final byte[] signature = new byte[SIGNATURE_LENGTH];
+        private final byte[] expected = new byte[SIGNATURE_LENGTH];
+        private byte[] input = new byte[512];
+        private byte[] payload = new byte[512];
+
+        private Scratch(SecretKey[] keys) {
+            macs = new Mac[keys.length];
+            try {
+                for (int i = 0; i < keys.length; i++) {
+                    macs[i] = Mac.getInstance("HmacSHA256");
+                    macs[i].init(keys[i]);
+                }
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        }
+
+        private byte[] input(int length) {
+            if (input.length < length) {
+                input = new byte[Math.max(length, input.length * 2)];
+            }
+            return input;
+        }
+
+        private byte[] payload(int encodedLength) {
+            int length = encodedLength * 3 / 4 + 1;
+            if (payload.length < length) {
+                payload = new byte[Math.max(length, payload.length * 2)];
+            }
+            return payload;
+        }
+    }
+}
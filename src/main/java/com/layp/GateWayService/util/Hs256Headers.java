@@ -0,0 +1,75 @@
+package com.layp.GateWayService.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Exact base64url header segments of the HS256 tokens the gateway issues
+ * Matched without decoding, so attacker-controlled header JSON is never interpreted:
+ * a header that is not byte-for-byte one of these is simply unknown
+ *
+ * Used by Hs256FastVerifier to pick the key, and through JwtUtil by TokenVerificationService
+ * to decide which tokens are cheap enough to verify on the event loop
+ */
+final class Hs256Headers {
+
+    private static final String[] KID_LESS = {
+            "{\"alg\":\"HS256\"}",
+            "{\"typ\":\"JWT\",\"alg\":\"HS256\"}",
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}"
+    };
+
+    private final String[] segments;
+    private final int[] keyIndexes;
+
+    /**
+     * @param kidLess whether kid-less headers are known; they map to key index 0
+     * @param keyIds kids of the HS256 ring keys, mapped to the following key indexes in list order;
+     *               a kid that would need JSON escaping keeps its index but gets no segment
+     */
+    Hs256Headers(boolean kidLess, List<String> keyIds) {
+        List<String> encoded = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        int keyIndex = 0;
+        if (kidLess) {
+            for (String header : KID_LESS) {
+                encoded.add(encode(header));
+                indexes.add(keyIndex);
+            }
+            keyIndex++;
+        }
+        for (String keyId : keyIds) {
+            if (keyId.indexOf('"') < 0 && keyId.indexOf('\\') < 0) {
+                encoded.add(encode("{\"kid\":\"" + keyId + "\",\"alg\":\"HS256\"}"));
+                indexes.add(keyIndex);
+            }
+            keyIndex++;
+        }
+        this.segments = encoded.toArray(new String[0]);
+        this.keyIndexes = indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @param token compact JWT
+     * @return key index of the token's header segment, or -1 for an unknown header
+     */
+    int keyIndex(String token) {
+        int firstDot = token.indexOf('.');
+        if (firstDot < 0) {
+            return -1;
+        }
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.length() == firstDot && token.regionMatches(0, segment, 0, firstDot)) {
+                return keyIndexes[i];
+            }
+        }
+        return -1;
+    }
+
+    private static String encode(String header) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(header.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,89 @@
+package com.layp.GateWayService.util;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.interfaces.ECPublicKey;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Pre-serialized JSON Web Key Set for the gateway's ES256 verification keys
+ * Built once per key change so the JWKS endpoint only writes cached bytes
+ *
+ * Technical implementation:
+ * - P-256 keys rendered as RFC 7517 EC JWKs
+ * - kid values are RFC 7638 thumbprints or configured ring key ids, JSON-escaped
+ * - ETag is the hash of the serialized document
+ */
+public final class Jwks {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    private static final int P256_COORDINATE_LENGTH = 32;
+
+    private final byte[] json;
+    private final String etag;
+
+    private Jwks(byte[] json) {
+        this.json = json;
+        this.etag = "\"" + TokenHash.of(new String(json, StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Builds the key set document
+     * @param keys verification keys indexed by kid
+     * @return serialized key set
+     */
+    public static Jwks of(Map<String, ECPublicKey> keys) {
+        StringBuilder json = new StringBuilder("{\"keys\":[");
+        boolean first = true;
+        for (Map.Entry<String, ECPublicKey> entry : keys.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            ECPublicKey key = entry.getValue();
+            json.append("{\"kty\":\"EC\",\"crv\":\"P-256\",\"use\":\"sig\",\"alg\":\"ES256\",\"kid\":\"")
+                    .append(JsonStringEncoder.getInstance().quoteAsString(entry.getKey()))
+                    .append("\",\"x\":\"").append(x(key))
+                    .append("\",\"y\":\"").append(y(key))
+                    .append("\"}");
+        }
+        json.append("]}");
+        return new Jwks(json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Computes the RFC 7638 thumbprint used as the key's kid
+     * @param key P-256 public key
+     * @return base64url SHA-256 thumbprint
+     */
+    public static String thumbprint(ECPublicKey key) {
+        return TokenHash.of("{\"crv\":\"P-256\",\"kty\":\"EC\",\"x\":\"" + x(key) + "\",\"y\":\"" + y(key) + "\"}");
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    private static String x(ECPublicKey key) {
+        return coordinate(key.getW().getAffineX());
+    }
+
+    private static String y(ECPublicKey key) {
+        return coordinate(key.getW().getAffineY());
+    }
+
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[P256_COORDINATE_LENGTH];
+        int copy = Math.min(bytes.length, P256_COORDINATE_LENGTH);
+        System.arraycopy(bytes, bytes.length - copy, fixed, P256_COORDINATE_LENGTH - copy, copy);
+        return BASE64URL.encodeToString(fixed);
+    }
+}
@@ -0,0 +1,187 @@
+package com.layp.GateWayService.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.interfaces.ECPublicKey;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the JWT signing and verification keys
+ * One active key signs new tokens, every other key only verifies,
+ * so a rotation never invalidates tokens that are still live
+ *
+ * Technical implementation:
+ * - Verification keys are indexed by kid in a HashMap, key selection is O(1)
+ * - Tokens without a kid are verified with the legacy key, if the ring has one: jwt.secret
+ *   in single-key HS256 mode, otherwise the ring entry marked legacy, which retires like any other key
+ * - Retired keys carry an age-out time; JwtUtil rebuilds the ring once the earliest one passes
+ * - Parser, HS256 fast verifier, known HS256 headers and JWKS document are built once per snapshot
+ */
+public final class JwtKeyRing {
+
+    private final SignatureAlgorithm signingAlgorithm;
+    private final Key signingKey;
+    private final String signingKeyId;
+    private final SecretKey legacyKey;
+    private final Map<String, Key> verificationKeys;
+    private final JwtParser parser;
+    private final Hs256FastVerifier fastVerifier;
+    private final Hs256Headers hs256Headers;
+    private final Jwks jwks;
+    private final long nextAgeOutMillis;
+
+    /**
+     * @param legacyKey HS256 key for kid-less tokens, also the signing key when no active kid is set;
+     *                  null rejects kid-less tokens
+     * @param activeKeyId kid of the signing entry, or null to sign kid-less with the legacy key
+     * @param entries ring entries that have not aged out
+     * @param fastPathEnabled whether HS256 keys get an Hs256FastVerifier
+     */
+    JwtKeyRing(SecretKey legacyKey, String activeKeyId, List<Entry> entries, boolean fastPathEnabled) {
+        this.legacyKey = legacyKey;
+        Map<String, Key> keysById = new HashMap<>();
+        Map<String, SecretKey> hmacKeysById = new HashMap<>();
+        Map<String, ECPublicKey> publicKeys = new LinkedHashMap<>();
+        Entry active = null;
+        long ageOut = Long.MAX_VALUE;
+        for (Entry entry : entries) {
+            keysById.put(entry.keyId, entry.verificationKey);
+            if (entry.algorithm == SignatureAlgorithm.HS256) {
+                hmacKeysById.put(entry.keyId, (SecretKey) entry.verificationKey);
+            } else {
+                publicKeys.put(entry.keyId, (ECPublicKey) entry.verificationKey);
+            }
+            if (entry.keyId.equals(activeKeyId)) {
+                active = entry;
+            }
+            ageOut = Math.min(ageOut, entry.notAfterMillis);
+        }
+
+        if (activeKeyId == null) {
+            if (legacyKey == null) {
+                throw new IllegalStateException("No active JWT key and no legacy key to sign with");
+            }
+            this.signingAlgorithm = SignatureAlgorithm.HS256;
+            this.signingKey = legacyKey;
+            this.signingKeyId = null;
+        } else {
+            if (active == null || active.signingKey == null || active.notAfterMillis != Long.MAX_VALUE) {
+                throw new IllegalStateException("Active JWT key " + activeKeyId + " must be present, unretired and able to sign");
+            }
+            this.signingAlgorithm = active.algorithm;
+            this.signingKey = active.signingKey;
+            this.signingKeyId = activeKeyId;
+        }
+        this.verificationKeys = keysById;
+        this.nextAgeOutMillis = ageOut;
+        this.jwks = Jwks.of(publicKeys);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    // jjwt 0.11 declares this override with a raw JwsHeader, JwsHeader<?> does not override it
+                    @Override
+                    @SuppressWarnings("rawtypes")
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+        this.fastVerifier = fastPathEnabled ? new Hs256FastVerifier(legacyKey, hmacKeysById) : null;
+        this.hs256Headers = new Hs256Headers(legacyKey != null, new ArrayList<>(hmacKeysById.keySet()));
+    }
+
+    private Key resolveKey(String keyId) {
+        if (keyId == null) {
+            if (legacyKey == null) {
+                throw new JwtException("Token has no signing key id");
+            }
+            return legacyKey;
+        }
+        Key key = verificationKeys.get(keyId);
+        if (key == null) {
+            throw new JwtException("Unknown signing key id: " + keyId);
+        }
+        return key;
+    }
+
+    SignatureAlgorithm getSigningAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    Key getSigningKey() {
+        return signingKey;
+    }
+
+    String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    JwtParser getParser() {
+        return parser;
+    }
+
+    Hs256FastVerifier getFastVerifier() {
+        return fastVerifier;
+    }
+
+    /**
+     * @param token compact JWT
+     * @return true if the header is exactly one the gateway emits for an HS256 key of this ring
+     */
+    boolean hasHs256Header(String token) {
+        return hs256Headers.keyIndex(token) >= 0;
+    }
+
+    Jwks getJwks() {
+        return jwks;
+    }
+
+    long getNextAgeOutMillis() {
+        return nextAgeOutMillis;
+    }
+
+    /**
+     * Single key in the ring
+     */
+    static final class Entry {
+        private final String keyId;
+        private final SignatureAlgorithm algorithm;
+        private final Key signingKey;
+        private final Key verificationKey;
+        private final long notAfterMillis;
+
+        /**
+         * @param keyId kid placed in the JWS header
+         * @param algorithm HS256 or ES256
+         * @param signingKey secret or private key, null for verify-only ES256 keys
+         * @param verificationKey secret or public key
+         * @param notAfterMillis time the key ages out, Long.MAX_VALUE while not retired
+         */
+        Entry(String keyId, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey, long notAfterMillis) {
+            this.keyId = keyId;
+            this.algorithm = algorithm;
+            this.signingKey = signingKey;
+            this.verificationKey = verificationKey;
+            this.notAfterMillis = notAfterMillis;
+        }
+
+        SignatureAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        Key getVerificationKey() {
+            return verificationKey;
+        }
+    }
+}
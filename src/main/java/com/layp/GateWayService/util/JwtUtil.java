@@ -1,16 +1,39 @@
 package com.layp.GateWayService.util;
 
+import com.layp.GateWayService.config.JwtKeyRingProperties;
+import com.layp.GateWayService.domain.VerifiedToken;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -20,6 +43,7 @@ import java.util.function.Function;
  */
 @Component
 public class JwtUtil {
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
 
     /**
      * Secret key used for signing JWT tokens
@@ -27,22 +51,233 @@ public class JwtUtil {
      * Must be at least 256 bits long for HS256 algorithm
      */
     @Value("${jwt.secret:mysecretkey12345mysecretkey12345mysecretkey12345}")
-    private String secret;
+    private volatile String secret;
 
     /**
      * Token expiration time in milliseconds
      * Default is 1 hour (3600000 milliseconds)
      */
     @Value("${jwt.expiration:3600000}")
-    private long expirationTime;
+    private volatile long expirationTime;
 
     /**
-     * Creates a SecretKey instance from the configured secret string
-     * Uses HMAC-SHA algorithm for key generation
-     * @return SecretKey instance used for JWT signing
+     * Enables the allocation-free HS256 verifier in front of the jjwt parser
+     * Tokens outside the fast-path shape still go through jjwt
      */
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.fast-path.enabled:false}")
+    private volatile boolean fastPathEnabled;
+
+    /**
+     * Algorithm used to sign new tokens when no jwt.key-ring is configured:
+     * HS256 (shared secret) or ES256 (EC key pair)
+     * ES256 tokens carry a kid so downstream services can verify them from the JWKS document
+     * Kid-less tokens are accepted only in HS256 mode, with the configured secret
+     */
+    @Value("${jwt.algorithm:HS256}")
+    private volatile String algorithm;
+
+    /**
+     * ES256 key pair as PEM or base64 DER (PKCS#8 private, X.509 public)
+     * When left empty with ES256 selected, a key pair is generated at startup
+     */
+    @Value("${jwt.ec.private-key:}")
+    private volatile String ecPrivateKey;
+
+    @Value("${jwt.ec.public-key:}")
+    private volatile String ecPublicKey;
+
+    /**
+     * Key pair generated when ES256 is selected without configured keys
+     * Kept across config refreshes so issued tokens stay verifiable
+     */
+    private KeyPair generatedKeyPair;
+
+    @Autowired
+    private Environment environment;
+
+    /**
+     * Signing and verification keys with the parser built for them
+     * Immutable and thread-safe, so a single instance is shared by all event-loop threads
+     * Replaced as one reference so a reader never sees a key paired with a stale parser
+     */
+    private volatile JwtKeyRing keyRing;
+
+    /**
+     * Time each ring key stopped being the active key, for keys without a configured retired-at
+     */
+    private final Map<String, Long> demotedAt = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the key ring and parser once at startup
+     * Avoids re-deriving keys and rebuilding the parser on every request
+     */
+    @PostConstruct
+    public synchronized void init() {
+        keyRing = buildKeyRing(keyRing, System.currentTimeMillis());
+    }
+
+    /**
+     * Builds a key ring from jwt.key-ring, or from the single-key settings when no ring is configured
+     * Keys retired longer ago than the maximum token lifetime are left out
+     * jwt.secret verifies kid-less tokens only in single-key HS256 mode; with ES256 or a ring
+     * configured, only a ring entry marked legacy does, until it ages out
+     * @param previous ring being replaced, used to detect a demoted active key
+     * @param now current time in milliseconds
+     * @return new key ring snapshot
+     */
+    private JwtKeyRing buildKeyRing(JwtKeyRing previous, long now) {
+        SecretKey legacyKey = null;
+        JwtKeyRingProperties properties = bindKeyRingProperties();
+        List<JwtKeyRing.Entry> entries = new ArrayList<>();
+        String activeKeyId = null;
+
+        if (properties.getKeys().isEmpty()) {
+            if ("ES256".equalsIgnoreCase(algorithm)) {
+                KeyPair keyPair = loadEcKeyPair();
+                activeKeyId = Jwks.thumbprint((ECPublicKey) keyPair.getPublic());
+                entries.add(new JwtKeyRing.Entry(activeKeyId, SignatureAlgorithm.ES256,
+                        keyPair.getPrivate(), keyPair.getPublic(), Long.MAX_VALUE));
+            } else {
+                legacyKey = Keys.hmacShaKeyFor(secret.getBytes());
+            }
+        } else {
+            activeKeyId = properties.getActive();
+            if (previous != null && previous.getSigningKeyId() != null
+                    && !previous.getSigningKeyId().equals(activeKeyId)) {
+                demotedAt.putIfAbsent(previous.getSigningKeyId(), now);
+            }
+            if (activeKeyId != null) {
+                demotedAt.remove(activeKeyId);
+            }
+            for (Map.Entry<String, JwtKeyRingProperties.Key> key : properties.getKeys().entrySet()) {
+                Long retiredAt = key.getValue().getRetiredAt() != null
+                        ? Long.valueOf(key.getValue().getRetiredAt().toEpochMilli())
+                        : demotedAt.get(key.getKey());
+                long notAfter = retiredAt == null ? Long.MAX_VALUE : retiredAt + expirationTime;
+                if (notAfter > now) {
+                    JwtKeyRing.Entry entry = toRingEntry(key.getKey(), key.getValue(), notAfter);
+                    entries.add(entry);
+                    if (key.getValue().isLegacy()) {
+                        if (legacyKey != null || entry.getAlgorithm() != SignatureAlgorithm.HS256) {
+                            throw new IllegalStateException("At most one HS256 JWT key may be marked legacy");
+                        }
+                        legacyKey = (SecretKey) entry.getVerificationKey();
+                    }
+                }
+            }
+        }
+        return new JwtKeyRing(legacyKey, activeKeyId, entries, fastPathEnabled);
+    }
+
+    private JwtKeyRingProperties bindKeyRingProperties() {
+        if (environment == null) {
+            return new JwtKeyRingProperties();
+        }
+        return Binder.get(environment)
+                .bind("jwt.key-ring", JwtKeyRingProperties.class)
+                .orElseGet(JwtKeyRingProperties::new);
+    }
+
+    private JwtKeyRing.Entry toRingEntry(String keyId, JwtKeyRingProperties.Key key, long notAfter) {
+        if ("HS256".equalsIgnoreCase(key.getAlgorithm())) {
+            SecretKey secretKey = Keys.hmacShaKeyFor(key.getSecret().getBytes());
+            return new JwtKeyRing.Entry(keyId, SignatureAlgorithm.HS256, secretKey, secretKey, notAfter);
+        }
+        if ("ES256".equalsIgnoreCase(key.getAlgorithm())) {
+            PrivateKey privateKey = key.getPrivateKey() == null || key.getPrivateKey().isBlank()
+                    ? null
+                    : EcKeys.parsePrivateKey(key.getPrivateKey());
+            return new JwtKeyRing.Entry(keyId, SignatureAlgorithm.ES256,
+                    privateKey, EcKeys.parsePublicKey(key.getPublicKey()), notAfter);
+        }
+        throw new IllegalStateException("Unsupported algorithm for JWT key " + keyId + ": " + key.getAlgorithm());
+    }
+
+    /**
+     * Returns the current key ring, rebuilding it once a retired key has aged out
+     * @return key ring used for signing and verification
+     */
+    private JwtKeyRing currentKeyRing() {
+        JwtKeyRing ring = keyRing;
+        if (System.currentTimeMillis() >= ring.getNextAgeOutMillis()) {
+            ring = ageOutRetiredKeys();
+        }
+        return ring;
+    }
+
+    private synchronized JwtKeyRing ageOutRetiredKeys() {
+        long now = System.currentTimeMillis();
+        if (now >= keyRing.getNextAgeOutMillis()) {
+            keyRing = buildKeyRing(keyRing, now);
+        }
+        return keyRing;
+    }
+
+    /**
+     * Loads the configured ES256 key pair, generating one when none is configured
+     * @return EC key pair used for signing and published in the JWKS document
+     */
+    private synchronized KeyPair loadEcKeyPair() {
+        if (!ecPrivateKey.isBlank() && !ecPublicKey.isBlank()) {
+            return new KeyPair(EcKeys.parsePublicKey(ecPublicKey), EcKeys.parsePrivateKey(ecPrivateKey));
+        }
+        if (generatedKeyPair == null) {
+            logger.warn("jwt.ec keys not configured, generated an ES256 key pair valid for this instance only");
+            generatedKeyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        }
+        return generatedKeyPair;
+    }
+
+    /**
+     * Rebuilds the key ring when JWT settings change on config refresh
+     * Business use: keys are added, promoted and retired without a restart
+     * Technical implementation: re-reads jwt.* from the refreshed Environment;
+     * an invalid key configuration is logged and the current ring is kept
+     * @param event change event listing the refreshed property keys
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().noneMatch(key -> key.startsWith("jwt."))) {
+            return;
+        }
+        secret = environment.getProperty("jwt.secret", secret);
+        expirationTime = environment.getProperty("jwt.expiration", Long.class, expirationTime);
+        fastPathEnabled = environment.getProperty("jwt.fast-path.enabled", Boolean.class, fastPathEnabled);
+        algorithm = environment.getProperty("jwt.algorithm", algorithm);
+        ecPrivateKey = environment.getProperty("jwt.ec.private-key", ecPrivateKey);
+        ecPublicKey = environment.getProperty("jwt.ec.public-key", ecPublicKey);
+        try {
+            init();
+        } catch (RuntimeException e) {
+            logger.error("Rejected refreshed JWT key configuration, keeping current keys", e);
+        }
+    }
+
+    /**
+     * @return lifetime of newly issued tokens in milliseconds
+     */
+    public long getExpirationTime() {
+        return expirationTime;
+    }
+
+    /**
+     * Tells cheap HMAC tokens from ones needing an asymmetric check, without parsing the header JSON
+     * Business use: TokenVerificationService verifies these tokens inline and offloads all others
+     * @param token JWT token string
+     * @return true if the header is byte-for-byte one the gateway emits for a current HS256 key
+     */
+    public boolean hasHs256Header(String token) {
+        return currentKeyRing().hasHs256Header(token);
+    }
+
+    /**
+     * Returns the JWKS document for the current verification keys
+     * Business use: lets downstream services verify ES256 tokens locally
+     * @return pre-serialized key set with its ETag
+     */
+    public Jwks getJwks() {
+        return currentKeyRing().getJwks();
     }
 
     /**
@@ -95,23 +330,11 @@ public class JwtUtil {
      * @return Claims object containing all token claims
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return currentKeyRing().getParser()
                 .parseClaimsJws(token)
                 .getBody();
     }
 
-    /**
-     * Checks if token is expired
-     * Business requirement: Ensure security by invalidating old tokens
-     * @param token JWT token string
-     * @return true if token is expired, false otherwise
-     */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     /**
      * Generates JWT token for authenticated user
      * Business use: Create session token after successful login
@@ -125,20 +348,46 @@ public class JwtUtil {
         return createToken(claims, username);
     }
 
+    /**
+     * Generates a machine token for a client-credentials client
+     * Business use: tokens issued by the client-credentials grant; the client_id claim (RFC 9068)
+     * marks them as machine tokens, user tokens never carry it
+     * @param clientId client's identifier, written as both sub and client_id
+     * @param role role for RBAC
+     * @param scopes granted scopes, written as one space-separated "scope" claim; omitted when empty
+     * @return JWT token string
+     */
+    public String generateClientToken(String clientId, String role, Collection<String> scopes) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("role", role);
+        claims.put("client_id", clientId);
+        if (!scopes.isEmpty()) {
+            claims.put("scope", String.join(" ", scopes));
+        }
+        return createToken(claims, clientId);
+    }
+
     /**
      * Creates JWT token with specified claims
      * Technical implementation using JJWT builder
+     * Each token gets a random jti so it can be revoked individually
      * @param claims custom claims to include in token
      * @param subject user identifier (username)
      * @return JWT token string
      */
     private String createToken(Map<String, Object> claims, String subject) {
-        return Jwts.builder()
+        JwtKeyRing ring = currentKeyRing();
+        JwtBuilder builder = Jwts.builder();
+        if (ring.getSigningKeyId() != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, ring.getSigningKeyId());
+        }
+        return builder
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(ring.getSigningKey(), ring.getSigningAlgorithm())
                 .compact();
     }
 
@@ -151,13 +400,42 @@ public class JwtUtil {
      */
     public Boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return !isTokenExpired(token);
+            verify(token);
+            return true;
         } catch (Exception e) {
             return false;
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Verifies a token with a single signature check and JSON decode
+     * Business use: hot authentication path, replaces separate validate/extract calls
+     * Technical implementation: the parser rejects bad signatures and expired tokens,
+     * the remaining claims are read from the same parse; when enabled, compact HS256
+     * tokens are first tried on Hs256FastVerifier
+     * @param token JWT token string
+     * @return VerifiedToken holding subject, role, expiry and raw claims
+     * @throws JwtException if the token is malformed, forged, expired or has no expiry
+     */
+    public VerifiedToken verify(String token) {
+        Hs256FastVerifier fastVerifier = currentKeyRing().getFastVerifier();
+        if (fastVerifier != null) {
+            VerifiedToken verified = fastVerifier.verify(token, System.currentTimeMillis());
+            if (verified != null) {
+                return verified;
+            }
+        }
+        Claims claims = extractAllClaims(token);
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            throw new JwtException("Token has no expiration");
+        }
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                expiration.getTime(),
+                claims
+        );
+    }
+}
\ No newline at end of file
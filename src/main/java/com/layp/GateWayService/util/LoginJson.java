@@ -0,0 +1,116 @@
+package com.layp.GateWayService.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.layp.GateWayService.domain.TokenResponse;
+import com.layp.GateWayService.domain.ValidatedUser;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON reading and writing for the login path, without reflection or intermediate maps
+ *
+ * Technical implementation:
+ * - The USER-SERVICE reply is read with a Jackson streaming parser straight from the response buffer,
+ *   picking out "role" and skipping everything else
+ * - Token responses are written from pre-encoded byte fragments with the tokens spliced in,
+ *   into one exactly sized DataBuffer; JWTs and refresh tokens are base64url, so no escaping is needed
+ */
+public final class LoginJson {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final byte[] TOKEN_PREFIX = "{\"token\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] REFRESH_TOKEN_PREFIX = "\",\"refreshToken\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EMPTY_OBJECT = "{}".getBytes(StandardCharsets.US_ASCII);
+
+    private LoginJson() {
+    }
+
+    /**
+     * Reads a USER-SERVICE /users/validate reply and releases the buffer
+     * @param buffer complete response body
+     * @return ValidatedUser carrying the "role" field, null if absent
+     * @throws UncheckedIOException if the body is not a JSON object
+     */
+    public static ValidatedUser readValidatedUser(DataBuffer buffer) {
+        try (JsonParser parser = createParser(buffer)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("USER-SERVICE reply is not a JSON object");
+            }
+            String role = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("role".equals(field) && value != JsonToken.VALUE_NULL) {
+                    role = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return new ValidatedUser(role);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    /**
+     * @param factory buffer factory of the response
+     * @param response tokens to write
+     * @return DataBuffer holding {"token":"...","refreshToken":"..."}
+     */
+    public static DataBuffer write(DataBufferFactory factory, TokenResponse response) {
+        String token = response.token();
+        String refreshToken = response.refreshToken();
+        int length = TOKEN_PREFIX.length + token.length() + REFRESH_TOKEN_PREFIX.length
+                + refreshToken.length() + SUFFIX.length;
+        DataBuffer buffer = factory.allocateBuffer(length);
+        buffer.write(TOKEN_PREFIX);
+        writeAscii(buffer, token);
+        buffer.write(REFRESH_TOKEN_PREFIX);
+        writeAscii(buffer, refreshToken);
+        buffer.write(SUFFIX);
+        return buffer;
+    }
+
+    /**
+     * @param factory buffer factory of the response
+     * @return DataBuffer holding {}, the body of every error response on the login path
+     */
+    public static DataBuffer emptyObject(DataBufferFactory factory) {
+        return factory.wrap(EMPTY_OBJECT);
+    }
+
+    /**
+     * Parses heap buffers in place, other buffers through a stream over their bytes
+     */
+    private static JsonParser createParser(DataBuffer buffer) throws IOException {
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            ByteBuffer first = iterator.next();
+            if (first.hasArray() && !iterator.hasNext()) {
+                return JSON.createParser(first.array(), first.arrayOffset() + first.position(), first.remaining());
+            }
+        }
+        return JSON.createParser(buffer.asInputStream());
+    }
+
+    private static void writeAscii(DataBuffer buffer, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7e || c == '"' || c == '\\') {
+                throw new IllegalArgumentException("Token is not base64url");
+            }
+            buffer.write((byte) c);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.layp.GateWayService.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer queue that never blocks producers
+ * Lets event-loop threads hand work to one background thread; a full buffer rejects instead of waiting
+ *
+ * Technical implementation:
+ * - Power-of-two array of slots, each with a sequence number (Vyukov bounded queue)
+ * - Producers claim a position with one compare-and-set on the tail, then publish the slot
+ *   by advancing its sequence; no locks, no allocation per element
+ * - The single consumer reads the head without atomics and frees each slot for the next lap
+ *
+ * @param <T> element type
+ */
+public final class MpscRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * @param capacity elements held at most, rounded up to a power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element, safe from any thread
+     * @param value element to add, not null
+     * @return false if the buffer was full and the element was not added
+     */
+    public boolean offer(T value) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, value);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Hands queued elements to the consumer, only ever called from the consuming thread
+     * @param consumer receives elements in insertion order
+     * @param limit most elements taken in this call
+     * @return number of elements taken
+     */
+    public int drain(Consumer<T> consumer, int limit) {
+        long position = head;
+        int taken = 0;
+        while (taken < limit) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            T value = slots.get(index);
+            slots.lazySet(index, null);
+            sequences.lazySet(index, position + mask + 1);
+            head = ++position;
+            taken++;
+            consumer.accept(value);
+        }
+        return taken;
+    }
+
+    /**
+     * @return approximate number of queued elements
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
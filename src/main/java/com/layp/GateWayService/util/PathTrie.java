@@ -0,0 +1,236 @@
+package com.layp.GateWayService.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Matcher for a fixed set of path patterns, compiled once into a segment radix trie
+ * Used to decide which request paths skip authentication
+ *
+ * Supported patterns:
+ * - /auth/login   exact path
+ * - a "*" segment matches exactly one path segment
+ * - /public/**    trailing ** matches the rest of the path, including nothing
+ *
+ * Technical implementation:
+ * - Each trie edge is a whole path segment, children are kept sorted and found by binary search
+ * - Matching compares segments of the raw path in place, nothing is decoded or allocated
+ * - Paths with empty, "." or ".." segments never match, so a public prefix cannot be
+ *   used to reach a protected path (e.g. /auth/../layp/users); the same holds for dot
+ *   segments spelled with %2E and for segments holding a backslash or an encoded '/' or '\',
+ *   which a downstream service could decode into extra segments
+ * - Percent-encoded segments are otherwise compared as written, an encoded spelling of a public
+ *   path therefore stays protected
+ */
+public final class PathTrie {
+
+    private final Node root;
+
+    private PathTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * @param patterns path patterns, each starting with '/'
+     * @return compiled matcher
+     * @throws IllegalArgumentException if a pattern is malformed
+     */
+    public static PathTrie compile(Collection<String> patterns) {
+        Builder root = new Builder();
+        for (String pattern : patterns) {
+            String trimmed = pattern.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (trimmed.charAt(0) != '/') {
+                throw new IllegalArgumentException("Path pattern must start with '/': " + pattern);
+            }
+            Builder node = root;
+            String[] segments = trimmed.substring(1).split("/", -1);
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.equals("**")) {
+                    if (i != segments.length - 1) {
+                        throw new IllegalArgumentException("'**' is only supported as the last segment: " + pattern);
+                    }
+                    node.catchAll = true;
+                } else if (segment.equals("*")) {
+                    node = node.wildcard == null ? (node.wildcard = new Builder()) : node.wildcard;
+                } else if (segment.isEmpty() || segment.indexOf('*') >= 0
+                        || segment.equals(".") || segment.equals("..")) {
+                    throw new IllegalArgumentException("Unsupported path segment '" + segment + "' in " + pattern);
+                } else {
+                    node = node.children.computeIfAbsent(segment, key -> new Builder());
+                }
+                if (i == segments.length - 1 && !node.catchAll) {
+                    node.terminal = true;
+                }
+            }
+        }
+        return new PathTrie(root.build());
+    }
+
+    /**
+     * @param rawPath request path as received, e.g. URI.getRawPath()
+     * @return true if any pattern matches the path
+     */
+    public boolean matches(String rawPath) {
+        if (rawPath == null || rawPath.isEmpty() || rawPath.charAt(0) != '/') {
+            return false;
+        }
+        return match(root, rawPath, 1);
+    }
+
+    /**
+     * @param node node reached so far
+     * @param path raw path
+     * @param start index of the next segment's first character
+     */
+    private static boolean match(Node node, String path, int start) {
+        if (node.catchAll && isSafeRemainder(path, start)) {
+            return true;
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        int length = end - start;
+        if (length == 0 || isUnsafeSegment(path, start, length)) {
+            return false;
+        }
+        boolean last = end == path.length();
+        Node child = node.find(path, start, length);
+        if (child != null && (last ? child.terminal || child.catchAll : match(child, path, end + 1))) {
+            return true;
+        }
+        Node wildcard = node.wildcard;
+        return wildcard != null && (last ? wildcard.terminal || wildcard.catchAll : match(wildcard, path, end + 1));
+    }
+
+    /**
+     * A catch-all accepts the remainder only if it has no empty or unsafe segments
+     */
+    private static boolean isSafeRemainder(String path, int start) {
+        int length = path.length();
+        if (start > length) {
+            return true;
+        }
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end == start || isUnsafeSegment(path, start, end - start)) {
+                return false;
+            }
+            start = end + 1;
+        }
+        return true;
+    }
+
+    /**
+     * @return true for ".", "..", their %2E spellings, and segments with a backslash, %2F or %5C
+     */
+    private static boolean isUnsafeSegment(String path, int start, int length) {
+        int end = start + length;
+        int dots = 0;
+        boolean onlyDots = true;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c == '\\') {
+                return true;
+            }
+            if (c == '%' && i + 2 < end) {
+                char high = path.charAt(i + 1);
+                char low = Character.toUpperCase(path.charAt(i + 2));
+                if ((high == '2' && low == 'F') || (high == '5' && low == 'C')) {
+                    return true;
+                }
+                if (high == '2' && low == 'E') {
+                    dots++;
+                    i += 2;
+                    continue;
+                }
+            }
+            if (c == '.') {
+                dots++;
+            } else {
+                onlyDots = false;
+            }
+        }
+        return onlyDots && dots <= 2;
+    }
+
+    /**
+     * Compares a path region with a segment the way String.compareTo would compare the substring
+     */
+    private static int compare(String segment, String path, int start, int length) {
+        int common = Math.min(segment.length(), length);
+        for (int i = 0; i < common; i++) {
+            int diff = segment.charAt(i) - path.charAt(start + i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return segment.length() - length;
+    }
+
+    /**
+     * Immutable trie node
+     */
+    private static final class Node {
+        private final String[] segments;
+        private final Node[] children;
+        private final Node wildcard;
+        private final boolean terminal;
+        private final boolean catchAll;
+
+        private Node(String[] segments, Node[] children, Node wildcard, boolean terminal, boolean catchAll) {
+            this.segments = segments;
+            this.children = children;
+            this.wildcard = wildcard;
+            this.terminal = terminal;
+            this.catchAll = catchAll;
+        }
+
+        private Node find(String path, int start, int length) {
+            int low = 0;
+            int high = segments.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(segments[mid], path, start, length);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Mutable node used while compiling
+     */
+    private static final class Builder {
+        private final Map<String, Builder> children = new TreeMap<>();
+        private Builder wildcard;
+        private boolean terminal;
+        private boolean catchAll;
+
+        private Node build() {
+            String[] segments = children.keySet().toArray(new String[0]);
+            List<Node> nodes = new ArrayList<>(segments.length);
+            for (Builder child : children.values()) {
+                nodes.add(child.build());
+            }
+            return new Node(segments, nodes.toArray(new Node[0]),
+                    wildcard == null ? null : wildcard.build(), terminal, catchAll);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.layp.GateWayService.util;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls into one
+ * The first caller for a key starts the call, callers arriving while it is in flight
+ * receive the same result instead of starting their own
+ *
+ * Technical implementation:
+ * - One cached Mono per key in a ConcurrentHashMap, fanned out to every subscriber
+ * - The entry is removed as soon as the call terminates, results are never reused afterwards
+ * - Cancelling one waiter does not cancel the call for the others
+ *
+ * @param <K> key identifying identical calls
+ * @param <V> result type
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param key identifies the call, equal keys share one execution
+     * @param call creates the call, invoked only when no call for the key is in flight
+     * @return Mono emitting the shared result
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            AtomicReference<Mono<V>> created = new AtomicReference<>();
+            return inFlight.computeIfAbsent(key, k -> {
+                created.set(call.get()
+                        .doFinally(signal -> inFlight.remove(k, created.get()))
+                        .cache());
+                return created.get();
+            });
+        });
+    }
+
+    /**
+     * @return number of calls currently in flight
+     */
+    public int size() {
+        return inFlight.size();
+    }
+}
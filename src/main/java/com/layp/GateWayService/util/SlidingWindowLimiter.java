@@ -0,0 +1,120 @@
+package com.layp.GateWayService.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate sliding-window rate limiter over an unbounded key space in fixed memory
+ * Used to throttle logins per username and per client address
+ *
+ * Technical implementation:
+ * - Count-min layout: each key maps to one cell in each of a few rows, its count is the
+ *   minimum over those cells, so collisions can only over-count, never under-count
+ * - Each cell packs window id (24 bits), current-window count (20 bits) and previous-window
+ *   count (20 bits) into one long, updated with compare-and-set, no locks
+ * - Sliding estimate = previous * (unelapsed fraction of the window) + current
+ * - Cold keys need no eviction, their cells simply roll over when next touched
+ */
+public final class SlidingWindowLimiter {
+
+    private static final int WINDOW_BITS = 24;
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;
+
+    private final AtomicLongArray cells;
+    private final int rows;
+    private final int mask;
+    private final long windowMillis;
+
+    /**
+     * @param cellsPerRow cells in each row, rounded up to a power of two
+     * @param rows rows probed per key, more rows lower the collision rate
+     * @param windowMillis window length in milliseconds
+     */
+    public SlidingWindowLimiter(int cellsPerRow, int rows, long windowMillis) {
+        int size = Integer.highestOneBit(Math.max(cellsPerRow, 2) - 1) << 1;
+        this.cells = new AtomicLongArray(size * rows);
+        this.rows = rows;
+        this.mask = size - 1;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Checks the key against its limit without counting an event
+     * Callers that enforce several limits check them all before recording, so an event
+     * refused by one limit is not charged to the others
+     * @param key username, client address, ...
+     * @param limit events allowed per sliding window
+     * @param nowMillis current time
+     * @return 0 if an event would be admitted, otherwise milliseconds until the estimate drops
+     */
+    public long waitMillis(String key, int limit, long nowMillis) {
+        long window = nowMillis / windowMillis;
+        long elapsed = nowMillis - window * windowMillis;
+        long hash = StringHash.hash64(key);
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < rows; row++) {
+            estimate = Math.min(estimate, estimate(cells.get(index(hash, row)), window, elapsed));
+        }
+        return estimate >= limit ? Math.max(windowMillis - elapsed, 1) : 0;
+    }
+
+    /**
+     * Counts one admitted event for the key
+     * Concurrent callers that passed waitMillis together may all record, overshooting
+     * the limit by at most the number of racing callers
+     * @param key username, client address, ...
+     * @param nowMillis current time
+     */
+    public void record(String key, long nowMillis) {
+        long window = nowMillis / windowMillis;
+        long hash = StringHash.hash64(key);
+        for (int row = 0; row < rows; row++) {
+            increment(index(hash, row), window);
+        }
+    }
+
+    private double estimate(long cell, long window, long elapsed) {
+        long cellWindow = cell >>> (2 * COUNT_BITS);
+        long current = (cell >>> COUNT_BITS) & COUNT_MASK;
+        long previous = cell & COUNT_MASK;
+        long w = window & WINDOW_MASK;
+        if (cellWindow == w) {
+            return previous * (double) (windowMillis - elapsed) / windowMillis + current;
+        }
+        if (cellWindow == ((w - 1) & WINDOW_MASK)) {
+            return current * (double) (windowMillis - elapsed) / windowMillis;
+        }
+        return 0;
+    }
+
+    private void increment(int index, long window) {
+        long w = window & WINDOW_MASK;
+        while (true) {
+            long cell = cells.get(index);
+            long cellWindow = cell >>> (2 * COUNT_BITS);
+            long current = (cell >>> COUNT_BITS) & COUNT_MASK;
+            long updated;
+            if (cellWindow == w) {
+                updated = pack(w, Math.min(current + 1, COUNT_MASK), cell & COUNT_MASK);
+            } else if (cellWindow == ((w - 1) & WINDOW_MASK)) {
+                updated = pack(w, 1, current);
+            } else {
+                updated = pack(w, 1, 0);
+            }
+            if (cells.compareAndSet(index, cell, updated)) {
+                return;
+            }
+        }
+    }
+
+    private static long pack(long window, long current, long previous) {
+        return (window << (2 * COUNT_BITS)) | (current << COUNT_BITS) | previous;
+    }
+
+    private int index(long hash, int row) {
+        // Kirsch-Mitzenmacher: row i probes h1 + i * h2
+        int h = (int) hash + row * (int) (hash >>> 32);
+        return row * (mask + 1) + (h & mask);
+    }
+}
@@ -0,0 +1,31 @@
+package com.layp.GateWayService.util;
+
+/**
+ * Fast non-cryptographic hash of strings for the in-memory probabilistic structures
+ * (BloomFilter, SlidingWindowLimiter); never use it where an attacker must not find collisions
+ */
+public final class StringHash {
+
+    private StringHash() {
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 chars followed by a murmur3 finalizer
+     * The finalizer spreads the bits, so both 32-bit halves can seed double hashing
+     * @param value string to hash
+     * @return 64-bit hash
+     */
+    public static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
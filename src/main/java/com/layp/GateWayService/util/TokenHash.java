@@ -0,0 +1,42 @@
+package com.layp.GateWayService.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * SHA-256 fingerprints of bearer tokens and other secrets
+ * Used as cache keys so raw tokens are never retained in memory
+ */
+public final class TokenHash {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private TokenHash() {
+    }
+
+    /**
+     * Computes the raw SHA-256 digest of a token
+     * @param token token string
+     * @return 32-byte digest
+     */
+    public static byte[] sha256(String token) {
+        return SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Computes a printable SHA-256 fingerprint of a token
+     * @param token token string
+     * @return unpadded base64url encoding of the digest
+     */
+    public static String of(String token) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sha256(token));
+    }
+}
@@ -0,0 +1,89 @@
+package com.layp.GateWayService;
+
+import com.layp.GateWayService.service.AuthFailureTracker;
+import com.layp.GateWayService.service.TokenRevocationList;
+import com.layp.GateWayService.service.TokenVerificationService;
+import com.layp.GateWayService.service.VerifiedTokenCache;
+import com.layp.GateWayService.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Wires the token verification components outside the Spring context
+ * Shared by the controller tests and the JMH benchmarks; mirrors the defaults in application.yml
+ */
+public final class TestFixtures {
+
+    public static final String SECRET = "mysecretkey12345mysecretkey12345mysecretkey12345";
+    public static final long EXPIRATION = 3600000L;
+
+    private TestFixtures() {
+    }
+
+    /**
+     * @param fastPathEnabled whether HS256 tokens are tried on Hs256FastVerifier first
+     * @return single-key HS256 JwtUtil signing with SECRET
+     */
+    public static JwtUtil jwtUtil(boolean fastPathEnabled) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expirationTime", EXPIRATION);
+        ReflectionTestUtils.setField(jwtUtil, "fastPathEnabled", fastPathEnabled);
+        ReflectionTestUtils.setField(jwtUtil, "algorithm", "HS256");
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    public static VerifiedTokenCache verifiedTokenCache(JwtUtil jwtUtil, boolean enabled, MeterRegistry meterRegistry) {
+        VerifiedTokenCache cache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(cache, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(cache, "enabled", enabled);
+        ReflectionTestUtils.setField(cache, "maxSize", 100000L);
+        cache.init();
+        return cache;
+    }
+
+    public static TokenRevocationList revocationList(MeterRegistry meterRegistry) {
+        TokenRevocationList revocationList = new TokenRevocationList();
+        ReflectionTestUtils.setField(revocationList, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(revocationList, "slotMillis", 900000L);
+        ReflectionTestUtils.setField(revocationList, "expectedPerSlot", 100000L);
+        ReflectionTestUtils.setField(revocationList, "falsePositiveRate", 0.01);
+        revocationList.init();
+        return revocationList;
+    }
+
+    public static AuthFailureTracker authFailureTracker(MeterRegistry meterRegistry) {
+        AuthFailureTracker tracker = new AuthFailureTracker();
+        ReflectionTestUtils.setField(tracker, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(tracker, "negativeTtlMillis", 60000L);
+        ReflectionTestUtils.setField(tracker, "negativeMaxSize", 100000L);
+        ReflectionTestUtils.setField(tracker, "threshold", 20);
+        ReflectionTestUtils.setField(tracker, "windowMillis", 60000L);
+        ReflectionTestUtils.setField(tracker, "blockMillis", 300000L);
+        ReflectionTestUtils.setField(tracker, "maxClients", 100000L);
+        tracker.init();
+        return tracker;
+    }
+
+    /**
+     * @return service with offloading enabled; close() it after use to stop its scheduler
+     */
+    public static TokenVerificationService tokenVerificationService(JwtUtil jwtUtil,
+                                                                    VerifiedTokenCache cache,
+                                                                    TokenRevocationList revocationList,
+                                                                    AuthFailureTracker tracker,
+                                                                    MeterRegistry meterRegistry) {
+        TokenVerificationService service = new TokenVerificationService();
+        ReflectionTestUtils.setField(service, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(service, "verifiedTokenCache", cache);
+        ReflectionTestUtils.setField(service, "revocationList", revocationList);
+        ReflectionTestUtils.setField(service, "authFailureTracker", tracker);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "offloadEnabled", true);
+        ReflectionTestUtils.setField(service, "queueCapacity", 1000);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,157 @@
+package com.layp.GateWayService.controller;
+
+import com.layp.GateWayService.TestFixtures;
+import com.layp.GateWayService.domain.RevocationRequest;
+import com.layp.GateWayService.domain.VerifiedToken;
+import com.layp.GateWayService.service.AuthFailureTracker;
+import com.layp.GateWayService.service.TokenRevocationList;
+import com.layp.GateWayService.service.TokenVerificationService;
+import com.layp.GateWayService.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdminControllerTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JwtUtil jwtUtil;
+    private TokenRevocationList revocationList;
+    private AuthFailureTracker authFailureTracker;
+    private TokenVerificationService tokenVerificationService;
+    private AdminController controller;
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = TestFixtures.jwtUtil(false);
+        revocationList = TestFixtures.revocationList(meterRegistry);
+        authFailureTracker = TestFixtures.authFailureTracker(meterRegistry);
+        tokenVerificationService = TestFixtures.tokenVerificationService(jwtUtil,
+                TestFixtures.verifiedTokenCache(jwtUtil, true, meterRegistry), revocationList, authFailureTracker, meterRegistry);
+
+        controller = new AdminController();
+        ReflectionTestUtils.setField(controller, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(controller, "tokenVerificationService", tokenVerificationService);
+        ReflectionTestUtils.setField(controller, "revocationList", revocationList);
+        ReflectionTestUtils.setField(controller, "authFailureTracker", authFailureTracker);
+        ReflectionTestUtils.setField(controller, "adminRole", "ADMIN");
+
+        adminToken = "Bearer " + jwtUtil.generateToken("ops", "ADMIN");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokenVerificationService.close();
+    }
+
+    @Test
+    void revokedTokenFailsVerification() {
+        String token = jwtUtil.generateToken("johndoe", "USER");
+        StepVerifier.create(tokenVerificationService.verify(token)).expectNextCount(1).verifyComplete();
+
+        assertEquals(HttpStatus.ACCEPTED, controller.revoke(adminToken, byToken(token)).block().getStatusCode());
+
+        StepVerifier.create(tokenVerificationService.verify(token)).verifyError(JwtException.class);
+    }
+
+    @Test
+    void revocationByJtiMatchesTheToken() {
+        String token = jwtUtil.generateToken("johndoe", "USER");
+        VerifiedToken verified = jwtUtil.verify(token);
+
+        assertEquals(HttpStatus.ACCEPTED,
+                controller.revoke(adminToken, byJti(verified.getId(), verified.getExpiresAtMillis())).block().getStatusCode());
+
+        assertTrue(revocationList.isRevoked(verified.getId()));
+        StepVerifier.create(tokenVerificationService.verify(token)).verifyError(JwtException.class);
+    }
+
+    @Test
+    void revocationByJtiMatchesDespiteAnExpiresAtInAnotherSlot() {
+        String token = jwtUtil.generateToken("johndoe", "USER");
+        VerifiedToken verified = jwtUtil.verify(token);
+        long elsewhere = System.currentTimeMillis() + 60000;
+
+        assertEquals(HttpStatus.ACCEPTED, controller.revoke(adminToken, byJti(verified.getId(), elsewhere)).block().getStatusCode());
+
+        StepVerifier.create(tokenVerificationService.verify(token)).verifyError(JwtException.class);
+    }
+
+    @Test
+    void rejectsUnusableExpiresAt() {
+        String token = jwtUtil.generateToken("johndoe", "USER");
+        VerifiedToken verified = jwtUtil.verify(token);
+        long now = System.currentTimeMillis();
+        long[] unusable = {
+                now - 1000,                                  // already expired
+                verified.getExpiresAtMillis() / 1000,        // exp in seconds
+                verified.getExpiresAtMillis() * 1000,        // exp in microseconds
+                now + TestFixtures.EXPIRATION + 60000                     // later than any token issued now
+        };
+
+        for (long expiresAt : unusable) {
+            assertEquals(HttpStatus.BAD_REQUEST,
+                    controller.revoke(adminToken, byJti(verified.getId(), expiresAt)).block().getStatusCode(), "expiresAt " + expiresAt);
+        }
+        assertFalse(revocationList.isRevoked(verified.getId()));
+        assertEquals(HttpStatus.BAD_REQUEST, controller.revoke(adminToken, byJti(verified.getId(), null)).block().getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.revoke(adminToken, byToken("not-a-token")).block().getStatusCode());
+    }
+
+    @Test
+    void requiresAdminRole() {
+        String token = jwtUtil.generateToken("johndoe", "USER");
+
+        assertEquals(HttpStatus.UNAUTHORIZED, controller.revoke(null, byToken(token)).block().getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, controller.revoke("Bearer " + token, byToken(token)).block().getStatusCode());
+        assertFalse(revocationList.isRevoked(jwtUtil.verify(token).getId()));
+    }
+
+    @Test
+    void revokedAdminTokenLosesAccess() {
+        String admin = adminToken.substring(7);
+
+        assertEquals(HttpStatus.ACCEPTED, controller.revoke(adminToken, byToken(admin)).block().getStatusCode());
+
+        assertEquals(HttpStatus.UNAUTHORIZED,
+                controller.revoke(adminToken, byToken(jwtUtil.generateToken("johndoe", "USER"))).block().getStatusCode());
+    }
+
+    @Test
+    void unblockRequiresAdminRole() {
+        for (int i = 0; i < 20; i++) {
+            authFailureTracker.recordFailure("10.0.0.7", "invalid token");
+        }
+        String user = "Bearer " + jwtUtil.generateToken("johndoe", "USER");
+
+        assertEquals(HttpStatus.FORBIDDEN, controller.unblock(user, "10.0.0.7").block().getStatusCode());
+        assertTrue(authFailureTracker.isBlocked("10.0.0.7"));
+
+        assertEquals(HttpStatus.NO_CONTENT, controller.unblock(adminToken, "10.0.0.7").block().getStatusCode());
+        assertFalse(authFailureTracker.isBlocked("10.0.0.7"));
+        assertEquals(HttpStatus.NOT_FOUND, controller.unblock(adminToken, "10.0.0.7").block().getStatusCode());
+    }
+
+    private static RevocationRequest byToken(String token) {
+        RevocationRequest request = new RevocationRequest();
+        request.setToken(token);
+        return request;
+    }
+
+    private static RevocationRequest byJti(String jti, Long expiresAt) {
+        RevocationRequest request = new RevocationRequest();
+        request.setJti(jti);
+        request.setExpiresAt(expiresAt);
+        return request;
+    }
+}
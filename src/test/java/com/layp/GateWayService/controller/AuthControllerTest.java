@@ -0,0 +1,340 @@
+package com.layp.GateWayService.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.layp.GateWayService.TestFixtures;
+import com.layp.GateWayService.domain.AuthRequest;
+import com.layp.GateWayService.service.ClientCredentialsService;
+import com.layp.GateWayService.service.CredentialCache;
+import com.layp.GateWayService.service.GatewayLog;
+import com.layp.GateWayService.service.LoginRateLimiter;
+import com.layp.GateWayService.service.RefreshTokenStore;
+import com.layp.GateWayService.service.TokenRevocationList;
+import com.layp.GateWayService.service.TokenVerificationService;
+import com.layp.GateWayService.util.JwtUtil;
+import com.layp.GateWayService.util.TokenHash;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthControllerTest {
+
+    private static final int CONCURRENT_LOGINS = 50;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ServerHttpRequest HTTP_REQUEST = MockServerHttpRequest.post("/auth/login").build();
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockEnvironment environment = new MockEnvironment();
+    private JwtUtil jwtUtil;
+    private RefreshTokenStore refreshTokenStore;
+    private CredentialCache credentialCache;
+    private LoginRateLimiter loginRateLimiter;
+    private CircuitBreaker circuitBreaker;
+    private TokenRevocationList revocationList;
+    private TokenVerificationService tokenVerificationService;
+    private ClientCredentialsService clientCredentialsService;
+    private AuthController controller;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jwtUtil = TestFixtures.jwtUtil(false);
+
+        refreshTokenStore = new RefreshTokenStore();
+        ReflectionTestUtils.setField(refreshTokenStore, "storePath", tempDir.resolve("refresh.mv").toString());
+        ReflectionTestUtils.setField(refreshTokenStore, "expirationTime", 1209600000L);
+        refreshTokenStore.init();
+
+        revocationList = TestFixtures.revocationList(meterRegistry);
+        tokenVerificationService = TestFixtures.tokenVerificationService(jwtUtil,
+                TestFixtures.verifiedTokenCache(jwtUtil, true, meterRegistry), revocationList,
+                TestFixtures.authFailureTracker(meterRegistry), meterRegistry);
+
+        ReflectionTestUtils.setField(jwtUtil, "environment", environment);
+        environment
+                .withProperty("auth.clients.nightly-rating-import.secret-sha256", HexFormat.of().formatHex(TokenHash.sha256("import-secret")))
+                .withProperty("auth.clients.nightly-rating-import.scopes", "ratings.write")
+                .withProperty("auth.clients.token-checker.secret-sha256", HexFormat.of().formatHex(TokenHash.sha256("checker-secret")))
+                .withProperty("auth.clients.token-checker.scopes", "tokens.introspect,ratings.read");
+        clientCredentialsService = new ClientCredentialsService();
+        ReflectionTestUtils.setField(clientCredentialsService, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(clientCredentialsService, "tokenRevocationList", revocationList);
+        ReflectionTestUtils.setField(clientCredentialsService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(clientCredentialsService, "environment", environment);
+        ReflectionTestUtils.setField(clientCredentialsService, "refreshMarginMillis", 60000L);
+        ReflectionTestUtils.setField(clientCredentialsService, "maxCachedTokens", 100L);
+        clientCredentialsService.init();
+
+        // Stands in for USER-SERVICE: counts calls and answers slowly enough for logins to overlap
+        WebClient userService = WebClient.builder()
+                .exchangeFunction(request -> {
+                    upstreamCalls.incrementAndGet();
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                    .body("{\"id\":7,\"profile\":{\"tags\":[\"a\"]},\"role\":\"USER\"}")
+                                    .build())
+                            .delayElement(Duration.ofMillis(200));
+                })
+                .build();
+
+        credentialCache = new CredentialCache();
+        ReflectionTestUtils.setField(credentialCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(credentialCache, "enabled", false);
+        ReflectionTestUtils.setField(credentialCache, "ttlMillis", 60000L);
+        ReflectionTestUtils.setField(credentialCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(credentialCache, "iterations", 1000);
+        credentialCache.init();
+
+        loginRateLimiter = new LoginRateLimiter();
+        ReflectionTestUtils.setField(loginRateLimiter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(loginRateLimiter, "enabled", false);
+        ReflectionTestUtils.setField(loginRateLimiter, "windowMillis", 60000L);
+        ReflectionTestUtils.setField(loginRateLimiter, "perUserLimit", 3);
+        ReflectionTestUtils.setField(loginRateLimiter, "perIpLimit", 100);
+        ReflectionTestUtils.setField(loginRateLimiter, "cells", 1024);
+        ReflectionTestUtils.setField(loginRateLimiter, "rows", 3);
+        loginRateLimiter.init();
+
+        circuitBreaker = CircuitBreaker.ofDefaults("user-service");
+
+        controller = new AuthController();
+        ReflectionTestUtils.setField(controller, "loginRateLimiter", loginRateLimiter);
+        ReflectionTestUtils.setField(controller, "gatewayLog", new GatewayLog());
+        ReflectionTestUtils.setField(controller, "userServiceCircuitBreaker", circuitBreaker);
+        ReflectionTestUtils.setField(controller, "userServiceTimeLimiter", TimeLimiter.ofDefaults("user-service"));
+        ReflectionTestUtils.setField(controller, "userServiceBulkhead", Bulkhead.of("user-service",
+                BulkheadConfig.custom().maxConcurrentCalls(CONCURRENT_LOGINS).maxWaitDuration(Duration.ZERO).build()));
+        ReflectionTestUtils.setField(controller, "credentialCache", credentialCache);
+        ReflectionTestUtils.setField(controller, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(controller, "refreshTokenStore", refreshTokenStore);
+        ReflectionTestUtils.setField(controller, "userServiceWebClient", userService);
+        ReflectionTestUtils.setField(controller, "tokenVerificationService", tokenVerificationService);
+        ReflectionTestUtils.setField(controller, "clientCredentialsService", clientCredentialsService);
+        ReflectionTestUtils.setField(controller, "introspectMaxBatch", 10);
+        ReflectionTestUtils.setField(controller, "introspectConcurrency", 4);
+        ReflectionTestUtils.setField(controller, "introspectScope", "tokens.introspect");
+        ReflectionTestUtils.setField(controller, "adminRole", "ADMIN");
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenStore.close();
+        tokenVerificationService.close();
+    }
+
+    @Test
+    void concurrentIdenticalLoginsShareOneUpstreamCall() {
+        List<ResponseEntity<DataBuffer>> responses = loginConcurrently("johndoe", "secret");
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(CONCURRENT_LOGINS, responses.size());
+        responses.forEach(response -> {
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("USER", jwtUtil.extractRole(body(response).get("token")));
+        });
+        // Each caller still gets its own refresh token family
+        assertEquals(CONCURRENT_LOGINS, responses.stream()
+                .map(response -> body(response).get("refreshToken"))
+                .distinct()
+                .count());
+    }
+
+    @Test
+    void completedLoginIsNotReused() {
+        loginConcurrently("johndoe", "secret");
+        loginConcurrently("johndoe", "secret");
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void differentCredentialsAreNotCoalesced() {
+        Flux.merge(controller.login(request("johndoe", "secret"), HTTP_REQUEST), controller.login(request("johndoe", "other"), HTTP_REQUEST),
+                        controller.login(request("janedoe", "secret"), HTTP_REQUEST))
+                .collectList()
+                .block();
+
+        assertEquals(3, upstreamCalls.get());
+    }
+
+    @Test
+    void cachedCredentialsAnswerRepeatLoginsLocally() {
+        ReflectionTestUtils.setField(credentialCache, "enabled", true);
+
+        controller.login(request("johndoe", "secret"), HTTP_REQUEST).block();
+        ResponseEntity<DataBuffer> repeat = controller.login(request("johndoe", "secret"), HTTP_REQUEST).block();
+        controller.login(request("johndoe", "changed"), HTTP_REQUEST).block();
+
+        assertEquals(HttpStatus.OK, repeat.getStatusCode());
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void throttledLoginsAreRefusedBeforeUpstreamCall() {
+        ReflectionTestUtils.setField(loginRateLimiter, "enabled", true);
+
+        for (int i = 0; i < 3; i++) {
+            controller.login(request("johndoe", "guess" + i), HTTP_REQUEST).block();
+        }
+        ResponseEntity<DataBuffer> throttled = controller.login(request("johndoe", "guess"), HTTP_REQUEST).block();
+        ResponseEntity<DataBuffer> otherUser = controller.login(request("janedoe", "secret"), HTTP_REQUEST).block();
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, throttled.getStatusCode());
+        assertTrue(Long.parseLong(throttled.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)) > 0);
+        assertEquals(HttpStatus.OK, otherUser.getStatusCode());
+        assertEquals(4, upstreamCalls.get());
+    }
+
+    @Test
+    void openCircuitBreakerRefusesLoginsWithoutUpstreamCall() {
+        circuitBreaker.transitionToOpenState();
+
+        ResponseEntity<DataBuffer> response = controller.login(request("johndoe", "secret"), HTTP_REQUEST).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals(0, upstreamCalls.get());
+    }
+
+    @Test
+    void introspectionRequiresAnAuthorizedCaller() {
+        List<String> tokens = List.of(jwtUtil.generateToken("johndoe", "USER"));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, controller.introspect(null, tokens).block().getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, controller.introspect("Bearer not-a-token", tokens).block().getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN,
+                controller.introspect(bearer(jwtUtil.generateToken("johndoe", "USER")), tokens).block().getStatusCode());
+        // A registered client without the introspection scope, and a user impersonating a client id with another role
+        assertEquals(HttpStatus.FORBIDDEN, controller.introspect(bearer(clientCredentialsService
+                .issue("nightly-rating-import", "import-secret", null).token()), tokens).block().getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN,
+                controller.introspect(bearer(jwtUtil.generateToken("token-checker", "USER")), tokens).block().getStatusCode());
+        // The client's own token narrowed to another scope, and a user token with the client's subject and role
+        assertEquals(HttpStatus.FORBIDDEN, controller.introspect(bearer(clientCredentialsService
+                .issue("token-checker", "checker-secret", "ratings.read").token()), tokens).block().getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN,
+                controller.introspect(bearer(jwtUtil.generateToken("token-checker", "SERVICE")), tokens).block().getStatusCode());
+    }
+
+    @Test
+    void introspectionAnswersAdminsAndIntrospectionClients() {
+        String active = jwtUtil.generateToken("johndoe", "USER");
+        List<String> tokens = List.of(active, "not-a-token");
+        String machineToken = clientCredentialsService.issue("token-checker", "checker-secret", null).token();
+
+        for (String caller : List.of(bearer(jwtUtil.generateToken("ops", "ADMIN")), bearer(machineToken))) {
+            ResponseEntity<List<Map<String, Object>>> response = controller.introspect(caller, tokens).block();
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(true, response.getBody().get(0).get("active"));
+            assertEquals("johndoe", response.getBody().get(0).get("sub"));
+            assertEquals(false, response.getBody().get(1).get("active"));
+        }
+        assertEquals(HttpStatus.BAD_REQUEST, controller.introspect(bearer(machineToken), List.of()).block().getStatusCode());
+    }
+
+    @Test
+    void clientTokenIsReissuedUnderTheNewActiveKey() {
+        environment.setProperty("jwt.key-ring.active", "2026-07");
+        environment.setProperty("jwt.key-ring.keys.2026-07.secret", "ringkey-2026-07-ringkey-2026-07-ringkey-2026-07");
+        environment.setProperty("jwt.key-ring.keys.2026-10.secret", "ringkey-2026-10-ringkey-2026-10-ringkey-2026-10");
+        refreshConfig("jwt.key-ring.active", "jwt.key-ring.keys.2026-07.secret", "jwt.key-ring.keys.2026-10.secret");
+        assertEquals("\"kid\":\"2026-07\"", kidOf(requestClientToken()));
+
+        environment.setProperty("jwt.key-ring.active", "2026-10");
+        refreshConfig("jwt.key-ring.active");
+        String rotated = requestClientToken();
+
+        assertEquals("\"kid\":\"2026-10\"", kidOf(rotated));
+        assertEquals("nightly-rating-import", jwtUtil.verify(rotated).getSubject());
+    }
+
+    /**
+     * Delivers a config refresh the way Spring Cloud does, JwtUtil first
+     */
+    private void refreshConfig(String... keys) {
+        EnvironmentChangeEvent event = new EnvironmentChangeEvent(Set.of(keys));
+        jwtUtil.onEnvironmentChange(event);
+        clientCredentialsService.onEnvironmentChange(event);
+    }
+
+    private String requestClientToken() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/auth/token")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body("grant_type=client_credentials&client_id=nightly-rating-import&client_secret=import-secret"));
+        ResponseEntity<Map<String, Object>> response = controller.token(exchange).block();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return (String) response.getBody().get("access_token");
+    }
+
+    private static String kidOf(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+                StandardCharsets.UTF_8);
+        return header.substring(header.indexOf("\"kid\""), header.indexOf(',', header.indexOf("\"kid\"")));
+    }
+
+    private static String bearer(String token) {
+        return "Bearer " + token;
+    }
+
+    private List<ResponseEntity<DataBuffer>> loginConcurrently(String username, String password) {
+        return Flux.range(0, CONCURRENT_LOGINS)
+                .flatMap(i -> controller.login(request(username, password), HTTP_REQUEST), CONCURRENT_LOGINS)
+                .collectList()
+                .block();
+    }
+
+    private static Map<String, String> body(ResponseEntity<DataBuffer> response) {
+        try {
+            return MAPPER.readValue(response.getBody().toString(StandardCharsets.UTF_8), new TypeReference<>() {
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static AuthRequest request(String username, String password) {
+        AuthRequest request = new AuthRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        return request;
+    }
+}
@@ -0,0 +1,115 @@
+package com.layp.GateWayService.filter;
+
+import com.layp.GateWayService.TestFixtures;
+import com.layp.GateWayService.identity.IdentityContextCodec;
+import com.layp.GateWayService.service.ApiKeyStore;
+import com.layp.GateWayService.service.AuthFailureTracker;
+import com.layp.GateWayService.service.TokenVerificationService;
+import com.layp.GateWayService.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthenticationFilterTest {
+
+    private static final InetSocketAddress CLIENT = new InetSocketAddress("10.0.0.7", 40000);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+    private JwtUtil jwtUtil;
+    private AuthFailureTracker authFailureTracker;
+    private TokenVerificationService tokenVerificationService;
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = TestFixtures.jwtUtil(false);
+        authFailureTracker = TestFixtures.authFailureTracker(meterRegistry);
+        tokenVerificationService = TestFixtures.tokenVerificationService(jwtUtil,
+                TestFixtures.verifiedTokenCache(jwtUtil, true, meterRegistry),
+                TestFixtures.revocationList(meterRegistry), authFailureTracker, meterRegistry);
+
+        AuthenticationFilter factory = new AuthenticationFilter();
+        ReflectionTestUtils.setField(factory, "tokenVerificationService", tokenVerificationService);
+        ReflectionTestUtils.setField(factory, "authFailureTracker", authFailureTracker);
+        ReflectionTestUtils.setField(factory, "apiKeyStore", new ApiKeyStore());
+        ReflectionTestUtils.setField(factory, "identityContextCodec",
+                new IdentityContextCodec("internalidentitykey12345internalidentitykey12345".getBytes(StandardCharsets.UTF_8)));
+        ReflectionTestUtils.setField(factory, "publicPaths", new String[]{"/auth/**"});
+        factory.init();
+        filter = factory.apply(new AuthenticationFilter.Config());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokenVerificationService.close();
+    }
+
+    @Test
+    void forwardsAMatchingUser() {
+        MockServerWebExchange exchange = exchange(jwtUtil.generateToken("johndoe", "USER"), "johndoe");
+
+        filter.filter(exchange, this::capture).block();
+
+        assertNotNull(forwarded.get());
+        assertEquals("johndoe", forwarded.get().getRequest().getHeaders().getFirst("X-Auth-User"));
+    }
+
+    @Test
+    void missingUserNameHeaderIsAFailedAuthentication() {
+        String token = jwtUtil.generateToken("johndoe", "USER");
+
+        for (int i = 0; i < 20; i++) {
+            MockServerWebExchange exchange = exchange(token, null);
+            filter.filter(exchange, this::capture).block();
+
+            assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        }
+        assertNull(forwarded.get());
+        assertTrue(authFailureTracker.isBlocked("10.0.0.7"));
+    }
+
+    @Test
+    void mismatchedUserNameIsRejected() {
+        MockServerWebExchange exchange = exchange(jwtUtil.generateToken("johndoe", "USER"), "janedoe");
+
+        filter.filter(exchange, this::capture).block();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        assertNull(forwarded.get());
+    }
+
+    private Mono<Void> capture(ServerWebExchange exchange) {
+        forwarded.set(exchange);
+        return Mono.empty();
+    }
+
+    private static MockServerWebExchange exchange(String token, String userName) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/layp/users/7")
+                .remoteAddress(CLIENT)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        if (userName != null) {
+            request.header("x-userName", userName);
+        }
+        return MockServerWebExchange.from(request);
+    }
+}
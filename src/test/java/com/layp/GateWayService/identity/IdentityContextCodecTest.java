@@ -0,0 +1,116 @@
+package com.layp.GateWayService.identity;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdentityContextCodecTest {
+
+    private static final byte[] KEY = "internal-identity-key-0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private final IdentityContextCodec codec = new IdentityContextCodec(KEY);
+
+    @Test
+    void roundTripsTheIdentity() {
+        long expiresAt = System.currentTimeMillis() + 3600000;
+
+        IdentityContext context = codec.verify(codec.encode("johndoe", "USER", expiresAt));
+
+        assertNotNull(context);
+        assertEquals("johndoe", context.getUsername());
+        assertEquals("USER", context.getRole());
+        assertEquals(expiresAt / 1000, context.getExpiresAtSeconds());
+    }
+
+    @Test
+    void roundTripsEdgeValues() {
+        long expiresAt = System.currentTimeMillis() + 3600000;
+
+        IdentityContext noRole = codec.verify(codec.encode("batch-job", null, expiresAt));
+        assertEquals("batch-job", noRole.getUsername());
+        assertNull(noRole.getRole());
+
+        IdentityContext nonAscii = codec.verify(codec.encode("jörg", "ÄDMIN", expiresAt));
+        assertEquals("jörg", nonAscii.getUsername());
+        assertEquals("ÄDMIN", nonAscii.getRole());
+
+        // Expiry is an unsigned 32-bit field, so it keeps working past 2038
+        long after2038 = 2208988800000L; // 2040-01-01
+        assertEquals(after2038 / 1000, codec.verify(codec.encode("johndoe", "USER", after2038)).getExpiresAtSeconds());
+    }
+
+    @Test
+    void rejectsEveryTamperedByte() {
+        byte[] original = decode(codec.encode("johndoe", "USER", System.currentTimeMillis() + 3600000));
+
+        for (int i = 0; i < original.length; i++) {
+            byte[] tampered = original.clone();
+            tampered[i] ^= 0x01;
+            assertNull(codec.verify(encode(tampered)), "byte " + i);
+        }
+    }
+
+    @Test
+    void rejectsAnElevatedRoleWithTheOriginalTag() {
+        long expiresAt = System.currentTimeMillis() + 3600000;
+        byte[] user = decode(codec.encode("johndoe", "USER", expiresAt));
+        byte[] admin = decode(codec.encode("johndoe", "ADMN", expiresAt));
+
+        // Same length, so the forged body lines up with the original tag
+        System.arraycopy(user, user.length - 16, admin, admin.length - 16, 16);
+
+        assertNull(codec.verify(encode(admin)));
+    }
+
+    @Test
+    void rejectsAHeaderSignedWithAnotherKey() {
+        IdentityContextCodec other = new IdentityContextCodec("another-identity-key-0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(codec.verify(other.encode("johndoe", "USER", System.currentTimeMillis() + 3600000)));
+    }
+
+    @Test
+    void rejectsExpiredIdentities() {
+        long now = System.currentTimeMillis();
+
+        assertNull(codec.verify(codec.encode("johndoe", "USER", now - 1000)));
+        assertNull(codec.verify(codec.encode("johndoe", "USER", 0)));
+        assertNotNull(codec.verify(codec.encode("johndoe", "USER", now + 5000)));
+    }
+
+    @Test
+    void rejectsMalformedHeaders() {
+        String valid = codec.encode("johndoe", "USER", System.currentTimeMillis() + 3600000);
+        byte[] bytes = decode(valid);
+
+        assertNull(codec.verify(null));
+        assertNull(codec.verify(""));
+        assertNull(codec.verify("not base64!"));
+        assertNull(codec.verify(valid.substring(0, valid.length() - 4)));
+        assertNull(codec.verify(valid + "AAAA"));
+        assertNull(codec.verify(encode(new byte[25])));
+
+        byte[] otherVersion = bytes.clone();
+        otherVersion[0] = 2;
+        assertNull(codec.verify(encode(otherVersion)));
+    }
+
+    @Test
+    void requiresA32ByteKey() {
+        assertThrows(IllegalArgumentException.class, () -> new IdentityContextCodec(new byte[31]));
+    }
+
+    private static byte[] decode(String headerValue) {
+        return Base64.getUrlDecoder().decode(headerValue);
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,174 @@
+package com.layp.GateWayService.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the whole gateway against in-process stub services, no Consul or real services needed
+ * Excluded from the default build, run with: mvn -Ploadtest test
+ *
+ * Settings (system properties, e.g. -Dloadtest.rate=1000):
+ * - loadtest.rate: requests started per second (200), loadtest.duration: measured time per scenario (10s),
+ *   loadtest.warmup: unmeasured load at the same rate before it (10s), loadtest.timeout: per request (5s)
+ * - loadtest.stub.latency / loadtest.stub.jitter: stub response time (20ms / 10ms),
+ *   loadtest.stub.error-rate: fraction answered with 500 (0), loadtest.stub.payload-bytes: body size (1024)
+ *
+ * The stubs are registered with the SimpleDiscoveryClient under USER-SERVICE, HOTEL-SERVICE and
+ * RATING-SERVICE, so lb:// routes and the USER-SERVICE login client resolve exactly as with Consul
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class GatewayLoadTest {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\":\"([^\"]+)\"");
+
+    private static final int RATE = Integer.getInteger("loadtest.rate", 200);
+    private static final Duration DURATION = duration("loadtest.duration", "10s");
+    private static final Duration WARMUP = duration("loadtest.warmup", "10s");
+    private static final Duration TIMEOUT = duration("loadtest.timeout", "5s");
+    private static final double ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.stub.error-rate", "0"));
+
+    private static final List<StubBackend> STUBS = List.of(
+            stub("USER-SERVICE"), stub("HOTEL-SERVICE"), stub("RATING-SERVICE"));
+
+    @LocalServerPort
+    private int port;
+
+    private HttpClient client;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.consul.enabled", () -> "false");
+        registry.add("spring.cloud.consul.discovery.enabled", () -> "false");
+        for (StubBackend stub : STUBS) {
+            registry.add("spring.cloud.discovery.client.simple.instances[" + stub.name() + "][0].uri", stub::uri);
+        }
+        // Load comes from one address and few users, the production throttles would measure themselves
+        registry.add("auth.rate-limit.enabled", () -> "false");
+        registry.add("gateway.auth-failures.threshold", () -> Integer.MAX_VALUE);
+        registry.add("auth.refresh.store-path", () -> "target/loadtest/refresh-tokens.mv");
+        registry.add("gateway.logging.file", () -> "target/loadtest/gateway.log");
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        STUBS.forEach(StubBackend::close);
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = HttpClient.create(ConnectionProvider.builder("loadtest")
+                        .maxConnections(RATE * 2)
+                        .pendingAcquireMaxCount(-1)
+                        .build())
+                .baseUrl("http://127.0.0.1:" + port);
+    }
+
+    @Test
+    void login() throws InterruptedException {
+        OpenLoopLoadGenerator.Report report = load("/auth/login", i -> post("/auth/login", credentials(i)));
+
+        assertCompleted(report);
+    }
+
+    @Test
+    void protectedRoutes() throws InterruptedException {
+        String token = login(credentials(0));
+        String[] paths = {"/layp/users/1", "/layp/hotels/1", "/layp/ratings/1"};
+
+        OpenLoopLoadGenerator.Report report = load("/layp/**", i -> client
+                .headers(headers -> headers
+                        .set(HttpHeaderNames.AUTHORIZATION, "Bearer " + token)
+                        .set("x-userName", "user0"))
+                .get()
+                .uri(paths[(int) (i % paths.length)])
+                .responseSingle((response, body) -> body.asByteArray()
+                        .then(Mono.just(response.status().code()))));
+
+        assertCompleted(report);
+    }
+
+    private OpenLoopLoadGenerator.Report load(String scenario, LongFunction<Mono<Integer>> request)
+            throws InterruptedException {
+        if (!WARMUP.isZero()) {
+            // JIT, connection pools and the load balancer cache settle here, not in the measured run
+            new OpenLoopLoadGenerator(RATE, WARMUP, TIMEOUT).run(request);
+        }
+        OpenLoopLoadGenerator.Report report = new OpenLoopLoadGenerator(RATE, DURATION, TIMEOUT).run(request);
+        System.out.printf("[loadtest] %s rate=%d/s duration=%s: %s%n", scenario, RATE, DURATION, report);
+        return report;
+    }
+
+    private static void assertCompleted(OpenLoopLoadGenerator.Report report) {
+        assertEquals(0, report.failures());
+        assertEquals(report.sent(), report.completed());
+        if (ERROR_RATE == 0) {
+            assertEquals(report.sent(), report.count(200));
+        }
+    }
+
+    private Mono<Integer> post(String path, String json) {
+        return client
+                .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, "application/json"))
+                .post()
+                .uri(path)
+                .send(ByteBufFlux.fromString(Mono.just(json)))
+                .responseSingle((response, body) -> body.asByteArray()
+                        .then(Mono.just(response.status().code())));
+    }
+
+    private String login(String credentials) {
+        String body = client
+                .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, "application/json"))
+                .post()
+                .uri("/auth/login")
+                .send(ByteBufFlux.fromString(Mono.just(credentials)))
+                .responseSingle((response, content) -> content.asString())
+                .block(TIMEOUT);
+        assertNotNull(body);
+        Matcher matcher = TOKEN.matcher(body);
+        assertTrue(matcher.find(), body);
+        return matcher.group(1);
+    }
+
+    /**
+     * Spreads logins over 1000 users so SingleFlight does not coalesce the whole load into one call
+     */
+    private static String credentials(long i) {
+        return "{\"username\":\"user" + (i % 1000) + "\",\"password\":\"secret\"}";
+    }
+
+    private static StubBackend stub(String name) {
+        return new StubBackend(name,
+                duration("loadtest.stub.latency", "20ms"),
+                duration("loadtest.stub.jitter", "10ms"),
+                ERROR_RATE,
+                Integer.getInteger("loadtest.stub.payload-bytes", 1024));
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+}
@@ -0,0 +1,125 @@
+package com.layp.GateWayService.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Open-loop load generator: requests start on a fixed schedule whether or not earlier ones have answered
+ * A closed loop (send, wait, send) slows down with the system under test and hides its queueing;
+ * here a slow gateway builds up in-flight requests, as real clients would
+ *
+ * Technical implementation:
+ * - One thread issues request i at start + i / rate, the request itself runs asynchronously
+ * - Latency is measured from the intended start, so a late schedule is charged to the system
+ *   (no coordinated omission)
+ * - Latencies go into an HdrHistogram in microseconds, 3 significant digits
+ */
+final class OpenLoopLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final int ratePerSecond;
+    private final Duration duration;
+    private final Duration timeout;
+
+    /**
+     * @param ratePerSecond requests started per second
+     * @param duration how long requests are started for
+     * @param timeout a request not answered within this counts as an error
+     */
+    OpenLoopLoadGenerator(int ratePerSecond, Duration duration, Duration timeout) {
+        this.ratePerSecond = ratePerSecond;
+        this.duration = duration;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param request creates request number i, emitting its HTTP status code
+     * @return latency percentiles, throughput and outcome counts once every request has finished
+     */
+    Report run(LongFunction<Mono<Integer>> request) throws InterruptedException {
+        Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder failures = new LongAdder();
+        AtomicLong inFlight = new AtomicLong();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long total = duration.toNanos() / intervalNanos;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.incrementAndGet();
+            request.apply(i)
+                    .timeout(timeout)
+                    .subscribe(
+                            status -> statuses.computeIfAbsent(status, s -> new LongAdder()).increment(),
+                            error -> {
+                                failures.increment();
+                                finish(histogram, intended, inFlight);
+                            },
+                            () -> finish(histogram, intended, inFlight));
+        }
+        long deadline = System.nanoTime() + timeout.toNanos() * 2;
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+        return new Report(total, histogram.getTotalCount(), failures.sum(), statusCounts,
+                histogram.getTotalCount() / (elapsed / 1e9), histogram);
+    }
+
+    private static void finish(Histogram histogram, long intended, AtomicLong inFlight) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+        histogram.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Outcome of one run
+     * @param sent requests started
+     * @param completed requests that answered or failed, the rest were still in flight at the end
+     * @param failures requests that timed out or failed at the connection level
+     * @param statuses HTTP status code counts
+     * @param throughput completed requests per second
+     * @param latencies latency histogram in microseconds
+     */
+    record Report(long sent, long completed, long failures, Map<Integer, Long> statuses, double throughput,
+                  Histogram latencies) {
+
+        double percentileMillis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        long count(int status) {
+            return statuses.getOrDefault(status, 0L);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("sent=%d completed=%d failures=%d statuses=%s throughput=%.1f/s "
+                            + "p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms",
+                    sent, completed, failures, statuses, throughput,
+                    percentileMillis(50), percentileMillis(99), percentileMillis(99.9),
+                    latencies.getMaxValue() / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.layp.GateWayService.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for USER-SERVICE, HOTEL-SERVICE or RATING-SERVICE
+ * Answers every request after latency (+ up to jitter), fails error-rate of them with 500
+ *
+ * Responses:
+ * - POST /users/validate: {"id":1,"username":"loadtest","role":"USER"}, so logins succeed
+ * - anything else: a JSON document of payload-bytes bytes
+ */
+final class StubBackend implements AutoCloseable {
+
+    private static final byte[] VALIDATE_REPLY =
+            "{\"id\":1,\"username\":\"loadtest\",\"role\":\"USER\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final String name;
+    private final Duration latency;
+    private final Duration jitter;
+    private final double errorRate;
+    private final byte[] payload;
+    private final AtomicLong requests = new AtomicLong();
+    private final DisposableServer server;
+
+    StubBackend(String name, Duration latency, Duration jitter, double errorRate, int payloadBytes) {
+        this.name = name;
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.payload = payload(payloadBytes);
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .handle(this::handle)
+                .bindNow();
+    }
+
+    private Mono<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        requests.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayNanos = latency.toNanos() + (jitter.isZero() ? 0 : random.nextLong(jitter.toNanos() + 1));
+        boolean fail = random.nextDouble() < errorRate;
+        byte[] body = request.method() == HttpMethod.POST && request.uri().startsWith("/users/validate")
+                ? VALIDATE_REPLY
+                : payload;
+        return request.receive()
+                .then(Mono.delay(Duration.ofNanos(delayNanos)))
+                .then(Mono.defer(() -> fail
+                        ? response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR).send()
+                        : response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                                .sendByteArray(Mono.just(body))
+                                .then()));
+    }
+
+    /**
+     * @return {"service":"...","data":"xxx..."} padded to the requested size
+     */
+    private byte[] payload(int size) {
+        String prefix = "{\"service\":\"" + name + "\",\"data\":\"";
+        String suffix = "\"}";
+        char[] padding = new char[Math.max(0, size - prefix.length() - suffix.length())];
+        Arrays.fill(padding, 'x');
+        return (prefix + new String(padding) + suffix).getBytes(StandardCharsets.UTF_8);
+    }
+
+    String uri() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    String name() {
+        return name;
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
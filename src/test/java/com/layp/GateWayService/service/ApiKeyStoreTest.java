@@ -0,0 +1,107 @@
+package com.layp.GateWayService.service;
+
+import com.layp.GateWayService.domain.ApiClient;
+import com.layp.GateWayService.util.TokenHash;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ApiKeyStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void authenticatesKeysFromTheSnapshot() throws IOException {
+        Path snapshot = write(tempDir.resolve("api-keys.csv"), 1000,
+                "# hotel batch clients",
+                "",
+                line("key-a", "hotel-batch", "SERVICE"),
+                "  " + line("key-b", "ops-tool", "ADMIN") + "  ");
+        ApiKeyStore store = store(snapshot);
+
+        ApiClient client = store.authenticate("key-a");
+        assertNotNull(client);
+        assertEquals("hotel-batch", client.getClientId());
+        assertEquals("SERVICE", client.getRole());
+        assertEquals("ops-tool", store.authenticate("key-b").getClientId());
+        assertNull(store.authenticate("key-c"));
+        assertNull(store.authenticate(""));
+    }
+
+    @Test
+    void reloadsAChangedSnapshot() throws IOException {
+        Path snapshot = write(tempDir.resolve("api-keys.csv"), 1000, line("key-a", "hotel-batch", "SERVICE"));
+        ApiKeyStore store = store(snapshot);
+
+        write(snapshot, 2000, line("key-b", "hotel-batch", "SERVICE"));
+        store.reload();
+
+        assertNull(store.authenticate("key-a"));
+        assertNotNull(store.authenticate("key-b"));
+    }
+
+    @Test
+    void keepsThePreviousKeysWhenASnapshotIsMalformed() throws IOException {
+        Path snapshot = write(tempDir.resolve("api-keys.csv"), 1000, line("key-a", "hotel-batch", "SERVICE"));
+        ApiKeyStore store = store(snapshot);
+
+        String[][] malformed = {
+                {line("key-b", "hotel-batch", "SERVICE"), "not-a-digest,hotel-batch,SERVICE"},
+                {line("key-b", "hotel-batch", "SERVICE"), line("key-c", "hotel-batch", "SERVICE") + ",extra"},
+                {"zz" + line("key-b", "hotel-batch", "SERVICE").substring(2)}
+        };
+        long modified = 2000;
+        for (String[] lines : malformed) {
+            write(snapshot, modified++, lines);
+            store.reload();
+
+            assertNotNull(store.authenticate("key-a"), String.join("\n", lines));
+            assertNull(store.authenticate("key-b"));
+        }
+    }
+
+    @Test
+    void rejectsEveryKeyWithoutASnapshot() {
+        ApiKeyStore store = new ApiKeyStore();
+        ReflectionTestUtils.setField(store, "snapshotPath", "");
+        store.init();
+
+        assertNull(store.authenticate("key-a"));
+
+        ReflectionTestUtils.setField(store, "snapshotPath", tempDir.resolve("missing.csv").toString());
+        store.reload();
+
+        assertNull(store.authenticate("key-a"));
+    }
+
+    private static ApiKeyStore store(Path snapshot) {
+        ApiKeyStore store = new ApiKeyStore();
+        ReflectionTestUtils.setField(store, "snapshotPath", snapshot.toString());
+        store.init();
+        return store;
+    }
+
+    private static String line(String key, String clientId, String role) {
+        return HexFormat.of().formatHex(TokenHash.sha256(key)) + ',' + clientId + ',' + role;
+    }
+
+    /**
+     * Writes the snapshot with a fixed modification time, so reload() sees every rewrite as a change
+     */
+    private static Path write(Path path, long modifiedMillis, String... lines) throws IOException {
+        Files.write(path, String.join("\n", lines).getBytes());
+        Files.setLastModifiedTime(path, FileTime.fromMillis(modifiedMillis));
+        return path;
+    }
+}
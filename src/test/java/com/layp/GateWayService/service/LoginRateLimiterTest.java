@@ -0,0 +1,57 @@
+package com.layp.GateWayService.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginRateLimiterTest {
+
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LoginRateLimiter();
+        ReflectionTestUtils.setField(limiter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "windowMillis", 60000L);
+        ReflectionTestUtils.setField(limiter, "perUserLimit", 3);
+        ReflectionTestUtils.setField(limiter, "perIpLimit", 5);
+        ReflectionTestUtils.setField(limiter, "cells", 1024);
+        ReflectionTestUtils.setField(limiter, "rows", 3);
+        limiter.init();
+    }
+
+    @Test
+    void throttledUsernameDoesNotDrainTheAddressBudget() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.7", "johndoe"));
+        }
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("10.0.0.7", "johndoe") > 0);
+        }
+
+        // 3 of the 5 address attempts are used, the refused ones were not charged
+        assertEquals(0, limiter.tryAcquire("10.0.0.7", "janedoe"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.7", "janedoe"));
+        assertTrue(limiter.tryAcquire("10.0.0.7", "janedoe") > 0);
+    }
+
+    @Test
+    void throttledAddressDoesNotChargeTheUsername() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.7", "user-" + i));
+        }
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("10.0.0.7", "johndoe") > 0);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.8", "johndoe"));
+        }
+        assertTrue(limiter.tryAcquire("10.0.0.9", "johndoe") > 0);
+    }
+}
@@ -0,0 +1,87 @@
+package com.layp.GateWayService.service;
+
+import com.layp.GateWayService.TestFixtures;
+import com.layp.GateWayService.domain.VerifiedToken;
+import com.layp.GateWayService.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenVerificationServiceTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JwtUtil jwtUtil;
+    private TokenVerificationService service;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = TestFixtures.jwtUtil(true);
+        service = TestFixtures.tokenVerificationService(jwtUtil,
+                TestFixtures.verifiedTokenCache(jwtUtil, true, meterRegistry),
+                TestFixtures.revocationList(meterRegistry), TestFixtures.authFailureTracker(meterRegistry), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void verifiesGatewayHs256TokensInline() {
+        String token = jwtUtil.generateToken("johndoe", "USER");
+
+        assertEquals(Thread.currentThread().getName(), signalThread(service.verify(token)));
+    }
+
+    @Test
+    void offloadsHeadersThatOnlyLookLikeHs256() {
+        String payload = jwtUtil.generateToken("johndoe", "USER").split("\\.")[1];
+        String[] headers = {
+                "{\"alg\":\"ES256\",\"x\":\"\\\"alg\\\":\\\"HS\"}",
+                "{\"alg\":\"HS256\",\"alg\":\"ES256\"}",
+                "{\"alg\":\"HS256\" }",
+                "{\"typ\":\"JWT\"}",
+                "{\"kid\":\"unknown\",\"alg\":\"HS256\"}"
+        };
+
+        for (String header : headers) {
+            String token = base64(header) + "." + payload + ".c2lnbmF0dXJl";
+            assertTrue(signalThread(service.verify(token)).startsWith("jwt-verify"), header);
+        }
+        assertTrue(signalThread(service.verify("not-a-token")).startsWith("jwt-verify"));
+    }
+
+    @Test
+    void batchCallersVerifyHs256OffTheCallingThread() {
+        String token = jwtUtil.generateToken("johndoe", "USER");
+
+        assertTrue(signalThread(service.verifyOffloaded(token)).startsWith("jwt-verify"));
+        // Once verified, the token is answered from the cache without another hop
+        assertEquals(Thread.currentThread().getName(), signalThread(service.verifyOffloaded(token)));
+    }
+
+    /**
+     * @return name of the thread the Mono signalled its result or error on
+     */
+    private static String signalThread(Mono<VerifiedToken> verified) {
+        AtomicReference<String> thread = new AtomicReference<>();
+        verified.doOnEach(signal -> thread.compareAndSet(null, Thread.currentThread().getName()))
+                .onErrorResume(e -> Mono.empty())
+                .block();
+        return thread.get();
+    }
+
+    private static String base64(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,136 @@
+package com.layp.GateWayService.util;
+
+import com.layp.GateWayService.domain.ApiClient;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ApiKeyIndexTest {
+
+    @Test
+    void findsInsertedKeys() {
+        ApiKeyIndex index = new ApiKeyIndex.Builder()
+                .add(TokenHash.sha256("key-a"), "hotel-batch", "SERVICE")
+                .add(TokenHash.sha256("key-b"), "rating-import", "SERVICE")
+                .add(TokenHash.sha256("key-c"), "ops-tool", "ADMIN")
+                .build();
+
+        assertEquals(3, index.size());
+        assertClient(index.lookup(TokenHash.sha256("key-a")), "hotel-batch", "SERVICE");
+        assertClient(index.lookup(TokenHash.sha256("key-b")), "rating-import", "SERVICE");
+        assertClient(index.lookup(TokenHash.sha256("key-c")), "ops-tool", "ADMIN");
+    }
+
+    @Test
+    void missesUnknownKeys() {
+        ApiKeyIndex index = new ApiKeyIndex.Builder()
+                .add(TokenHash.sha256("key-a"), "hotel-batch", "SERVICE")
+                .build();
+
+        assertNull(index.lookup(TokenHash.sha256("key-b")));
+        assertNull(index.lookup(new byte[32]));
+        assertNull(ApiKeyIndex.empty().lookup(TokenHash.sha256("key-a")));
+        assertEquals(0, ApiKeyIndex.empty().size());
+    }
+
+    @Test
+    void probesPastCollidingSlots() {
+        // Same low half, so every digest hashes to the same slot; only the high half tells them apart
+        byte[] first = digest(1, 42);
+        byte[] second = digest(2, 42);
+        byte[] third = digest(3, 42);
+        ApiKeyIndex index = new ApiKeyIndex.Builder()
+                .add(first, "first", "A")
+                .add(second, "second", "B")
+                .add(third, "third", "C")
+                .build();
+
+        assertClient(index.lookup(first), "first", "A");
+        assertClient(index.lookup(second), "second", "B");
+        assertClient(index.lookup(third), "third", "C");
+        assertNull(index.lookup(digest(4, 42)));
+        assertNull(index.lookup(digest(1, 43)));
+    }
+
+    @Test
+    void probingWrapsAroundTheTableEnd() {
+        // Low half 7 lands in the last slot of an 8-slot table (4 or 5 keys), collisions continue at slot 0
+        ApiKeyIndex.Builder builder = new ApiKeyIndex.Builder();
+        for (int i = 1; i <= 5; i++) {
+            builder.add(digest(i, 7), "client-" + i, "SERVICE");
+        }
+        ApiKeyIndex index = builder.build();
+
+        for (int i = 1; i <= 5; i++) {
+            assertClient(index.lookup(digest(i, 7)), "client-" + i, "SERVICE");
+        }
+        assertNull(index.lookup(digest(6, 7)));
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        ApiKeyIndex.Builder builder = new ApiKeyIndex.Builder();
+        for (int i = 0; i < 10_000; i++) {
+            builder.add(TokenHash.sha256("key-" + i), "client-" + i, "ROLE-" + (i % 3));
+        }
+        ApiKeyIndex index = builder.build();
+
+        assertEquals(10_000, index.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertClient(index.lookup(TokenHash.sha256("key-" + i)), "client-" + i, "ROLE-" + (i % 3));
+        }
+        assertNull(index.lookup(TokenHash.sha256("key-10000")));
+    }
+
+    @Test
+    void laterDuplicateReplacesEarlierKey() {
+        ApiKeyIndex index = new ApiKeyIndex.Builder()
+                .add(TokenHash.sha256("key-a"), "old-owner", "SERVICE")
+                .add(TokenHash.sha256("key-a"), "new-owner", "ADMIN")
+                .build();
+
+        assertEquals(1, index.size());
+        assertClient(index.lookup(TokenHash.sha256("key-a")), "new-owner", "ADMIN");
+    }
+
+    @Test
+    void keepsNonAsciiClientIds() {
+        ApiKeyIndex index = new ApiKeyIndex.Builder()
+                .add(TokenHash.sha256("key-a"), "hôtel-zürich", "SERVICE")
+                .add(TokenHash.sha256("key-b"), "", "SERVICE")
+                .build();
+
+        assertClient(index.lookup(TokenHash.sha256("key-a")), "hôtel-zürich", "SERVICE");
+        assertClient(index.lookup(TokenHash.sha256("key-b")), "", "SERVICE");
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        ApiKeyIndex.Builder builder = new ApiKeyIndex.Builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.add(new byte[16], "client", "SERVICE"));
+
+        for (int i = 0; i < 256; i++) {
+            builder.add(TokenHash.sha256("key-" + i), "client", "ROLE-" + i);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.add(TokenHash.sha256("key-256"), "client", "ROLE-256"));
+    }
+
+    private static void assertClient(ApiClient client, String clientId, String role) {
+        assertNotNull(client);
+        assertEquals(clientId, client.getClientId());
+        assertEquals(role, client.getRole());
+    }
+
+    /**
+     * @return 32-byte digest whose first 128 bits are the two given longs
+     */
+    private static byte[] digest(long high, long low) {
+        return ByteBuffer.allocate(32).putLong(high).putLong(low).array();
+    }
+}
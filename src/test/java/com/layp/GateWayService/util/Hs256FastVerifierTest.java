@@ -0,0 +1,194 @@
+package com.layp.GateWayService.util;
+
+import com.layp.GateWayService.domain.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Hs256FastVerifierTest {
+
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(
+            "mysecretkey12345mysecretkey12345mysecretkey12345".getBytes(StandardCharsets.UTF_8));
+    private static final SecretKey RING_KEY = Keys.hmacShaKeyFor(
+            "ringkey-2026-10-ringkey-2026-10-ringkey-2026-10".getBytes(StandardCharsets.UTF_8));
+    private static final String HEADER = "{\"alg\":\"HS256\"}";
+
+    private final Hs256FastVerifier verifier = new Hs256FastVerifier(KEY, Map.of("2026-10", RING_KEY));
+    private final long now = System.currentTimeMillis();
+    private final long exp = now / 1000 + 3600;
+
+    @Test
+    void agreesWithJjwtOnGatewayTokens() {
+        String userToken = Jwts.builder()
+                .setClaims(new HashMap<>(Map.of("role", "USER")))
+                .setId(UUID.randomUUID().toString())
+                .setSubject("johndoe")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(exp * 1000))
+                .signWith(KEY, SignatureAlgorithm.HS256)
+                .compact();
+        String machineToken = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, "2026-10")
+                .setClaims(new HashMap<>(Map.of("role", "SERVICE", "scope", "hotels.read ratings.write",
+                        "client_id", "nightly-rating-import")))
+                .setId(UUID.randomUUID().toString())
+                .setSubject("nightly-rating-import")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(exp * 1000))
+                .signWith(RING_KEY, SignatureAlgorithm.HS256)
+                .compact();
+
+        assertAgreesWithJjwt(userToken, KEY);
+        assertAgreesWithJjwt(machineToken, RING_KEY);
+    }
+
+    @Test
+    void agreesWithJjwtOnEveryScalarType() {
+        String token = token(HEADER, "{ \"sub\" : \"johndoe\", \"big\":12345678901, \"neg\":-7, \"zero\":0,"
+                + " \"yes\":true, \"no\":false, \"none\":null, \"exp\":" + exp + " }", KEY);
+
+        assertAgreesWithJjwt(token, KEY);
+    }
+
+    @Test
+    void treatsNullReadClaimsAsAbsent() {
+        String token = token(HEADER, "{\"jti\":\"a\",\"sub\":\"johndoe\",\"jti\":null,\"role\":null,\"exp\":" + exp + "}", KEY);
+
+        assertAgreesWithJjwt(token, KEY);
+    }
+
+    @Test
+    void rejectsTamperedSignature() {
+        String token = token(HEADER, "{\"sub\":\"johndoe\",\"exp\":" + exp + "}", KEY);
+        int last = token.length() - 5;
+        String tampered = token.substring(0, last) + (token.charAt(last) == 'A' ? 'B' : 'A') + token.substring(last + 1);
+
+        assertThrows(SignatureException.class, () -> verifier.verify(tampered, now));
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        String token = token(HEADER, "{\"sub\":\"johndoe\",\"role\":\"USER\",\"exp\":" + exp + "}", KEY);
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + '.' + encode("{\"sub\":\"johndoe\",\"role\":\"ADMIN\",\"exp\":" + exp + "}") + '.' + parts[2];
+
+        assertThrows(SignatureException.class, () -> verifier.verify(forged, now));
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKeyThanItsKid() {
+        String token = token("{\"kid\":\"2026-10\",\"alg\":\"HS256\"}", "{\"sub\":\"johndoe\",\"exp\":" + exp + "}", KEY);
+
+        assertThrows(SignatureException.class, () -> verifier.verify(token, now));
+    }
+
+    @Test
+    void leavesUnknownKidToJjwt() {
+        String token = token("{\"kid\":\"2026-07\",\"alg\":\"HS256\"}", "{\"sub\":\"johndoe\",\"exp\":" + exp + "}", KEY);
+
+        assertNull(verifier.verify(token, now));
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        String token = token(HEADER, "{\"sub\":\"johndoe\",\"exp\":" + (now / 1000 - 1) + "}", KEY);
+
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(token, now));
+    }
+
+    @Test
+    void fallsBackOnPayloadsOutsideTheFastPathShape() {
+        String[] payloads = {
+                "{\"sub\":\"johndoe\",\"nbf\":" + (now / 1000) + ",\"exp\":" + exp + "}",
+                "{\"sub\":\"john\\\"doe\",\"exp\":" + exp + "}",
+                "{\"sub\":\"johndoe\",\"profile\":{\"id\":7},\"exp\":" + exp + "}",
+                "{\"sub\":\"johndoe\",\"tags\":[\"a\"],\"exp\":" + exp + "}",
+                "{\"sub\":\"johndoe\",\"score\":1.5,\"exp\":" + exp + "}",
+                "{\"sub\":\"johndoe\",\"exp\":\"" + exp + "\"}",
+                "{\"sub\":\"johndoe\"}",
+                "{\"sub\":\"johndoe\",\"exp\":99999999999999999999}",
+                "{\"sub\":\"johndoe\",\"exp\":9223372036854776}",
+                "{\"sub\":\"johndoe\",\"exp\":-}",
+                "{\"sub\":\"johndoe\",\"exp\":0" + exp + "}",
+                "{\"sub\":\"johndoe\",\"flag\":tru,\"exp\":" + exp + "}",
+                "{\"sub\":\"johndoe\",\"exp\":" + exp + "}x",
+                "{\"sub\":\"johndoe\",\"exp\":" + exp + ",}",
+                "{\"sub\":7,\"exp\":" + exp + "}",
+                "{\"role\":true,\"exp\":" + exp + "}",
+                "{\"sub\":\"johndoe\",\"scope\":[\"a\"],\"exp\":" + exp + "}",
+                "{\"sub\":\"johndoe\",\"client_id\":7,\"exp\":" + exp + "}",
+                "{\"sub\":\"johndoe\",\"exp\":null}",
+                "{\"sub\":\"johndoe\",\"exp\":" + exp + ",\"exp\":null}"
+        };
+        for (String payload : payloads) {
+            assertNull(verifier.verify(token(HEADER, payload, KEY), now), payload);
+        }
+    }
+
+    @Test
+    void fallsBackOnOtherHeaders() {
+        String payload = "{\"sub\":\"johndoe\",\"exp\":" + exp + "}";
+        String[] headers = {
+                "{\"alg\":\"HS384\"}",
+                "{\"alg\":\"ES256\"}",
+                "{\"alg\":\"HS256\",\"zip\":\"DEF\"}",
+                "{\"alg\": \"HS256\"}",
+                "{\"typ\":\"JWT\"}"
+        };
+        for (String header : headers) {
+            assertNull(verifier.verify(token(header, payload, KEY), now), header);
+        }
+        assertNull(verifier.verify("not-a-token", now));
+    }
+
+    private void assertAgreesWithJjwt(String token, SecretKey key) {
+        Claims expected = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+
+        VerifiedToken verified = verifier.verify(token, now);
+
+        assertNotNull(verified);
+        Map<String, Object> readClaims = new HashMap<>(expected);
+        readClaims.keySet().retainAll(Set.of("jti", "sub", "role", "exp", "scope", "client_id"));
+        assertEquals(readClaims, verified.getClaims());
+        assertEquals(expected.getId(), verified.getId());
+        assertEquals(expected.getSubject(), verified.getSubject());
+        assertEquals(expected.get("role", String.class), verified.getRole());
+        assertEquals(expected.getExpiration().getTime(), verified.getExpiresAtMillis());
+    }
+
+    private static String token(String header, String payload, SecretKey key) {
+        String signingInput = encode(header) + '.' + encode(payload);
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + '.' + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
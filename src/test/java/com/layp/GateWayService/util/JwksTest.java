@@ -0,0 +1,54 @@
+package com.layp.GateWayService.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwksTest {
+
+    @Test
+    void escapesKeyIdsFromConfiguration() throws Exception {
+        ECPublicKey key = (ECPublicKey) generate("secp256r1").getPublic();
+        Map<String, ECPublicKey> keys = new LinkedHashMap<>();
+        keys.put("2026-07", key);
+        keys.put("odd \"kid\" \\ with\ncontrol", key);
+
+        JsonNode document = new ObjectMapper().readTree(Jwks.of(keys).getJson());
+
+        assertEquals("2026-07", document.get("keys").get(0).get("kid").asText());
+        assertEquals("odd \"kid\" \\ with\ncontrol", document.get("keys").get(1).get("kid").asText());
+        assertEquals("P-256", document.get("keys").get(1).get("crv").asText());
+    }
+
+    @Test
+    void acceptsOnlyP256Keys() throws Exception {
+        KeyPair p256 = generate("secp256r1");
+        EcKeys.parsePublicKey(base64(p256.getPublic().getEncoded()));
+        EcKeys.parsePrivateKey(base64(p256.getPrivate().getEncoded()));
+
+        KeyPair p384 = generate("secp384r1");
+        assertThrows(IllegalStateException.class, () -> EcKeys.parsePublicKey(base64(p384.getPublic().getEncoded())));
+        assertThrows(IllegalStateException.class, () -> EcKeys.parsePrivateKey(base64(p384.getPrivate().getEncoded())));
+    }
+
+    private static KeyPair generate(String curve) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec(curve));
+        return generator.generateKeyPair();
+    }
+
+    private static String base64(byte[] der) {
+        return Base64.getEncoder().encodeToString(der);
+    }
+}
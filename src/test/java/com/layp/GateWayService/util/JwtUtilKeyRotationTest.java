@@ -0,0 +1,128 @@
+package com.layp.GateWayService.util;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtUtilKeyRotationTest {
+
+    private static final String DEFAULT_SECRET = "mysecretkey12345mysecretkey12345mysecretkey12345";
+    private static final String SECRET_2026_07 = "ringkey-2026-07-ringkey-2026-07-ringkey-2026-07";
+    private static final String SECRET_2026_10 = "ringkey-2026-10-ringkey-2026-10-ringkey-2026-10";
+    private static final long EXPIRATION = 3600000L;
+
+    private final MockEnvironment environment = new MockEnvironment();
+
+    @Test
+    void demotedKeyKeepsVerifyingUntilItsTokensCouldHaveExpired() {
+        environment.setProperty("jwt.key-ring.active", "2026-07");
+        environment.setProperty("jwt.key-ring.keys.2026-07.secret", SECRET_2026_07);
+        environment.setProperty("jwt.key-ring.keys.2026-10.secret", SECRET_2026_10);
+        JwtUtil jwtUtil = jwtUtil("HS256", false);
+        String oldToken = jwtUtil.generateToken("johndoe", "USER");
+
+        environment.setProperty("jwt.key-ring.active", "2026-10");
+        jwtUtil.init();
+        String newToken = jwtUtil.generateToken("johndoe", "USER");
+
+        assertEquals("johndoe", jwtUtil.verify(oldToken).getSubject());
+        String header = new String(Base64.getUrlDecoder().decode(newToken.substring(0, newToken.indexOf('.'))),
+                StandardCharsets.UTF_8);
+        assertTrue(header.contains("\"kid\":\"2026-10\""), header);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void retiredKeyIsRejectedOnceAgedOut(boolean fastPath) {
+        environment.setProperty("jwt.key-ring.active", "2026-07");
+        environment.setProperty("jwt.key-ring.keys.2026-07.secret", SECRET_2026_07);
+        environment.setProperty("jwt.key-ring.keys.2026-10.secret", SECRET_2026_10);
+        JwtUtil jwtUtil = jwtUtil("HS256", fastPath);
+        String oldToken = jwtUtil.generateToken("johndoe", "USER");
+
+        environment.setProperty("jwt.key-ring.active", "2026-10");
+        environment.setProperty("jwt.key-ring.keys.2026-07.retired-at",
+                Instant.now().minusMillis(EXPIRATION + 1000).toString());
+        jwtUtil.init();
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(oldToken));
+        assertEquals("johndoe", jwtUtil.verify(jwtUtil.generateToken("johndoe", "USER")).getSubject());
+    }
+
+    @Test
+    void legacySecretStopsVerifyingOnceARingIsConfigured() {
+        String kidless = kidlessToken(DEFAULT_SECRET);
+        environment.setProperty("jwt.key-ring.active", "2026-10");
+        environment.setProperty("jwt.key-ring.keys.2026-10.secret", SECRET_2026_10);
+
+        assertThrows(JwtException.class, () -> jwtUtil("HS256", false).verify(kidless));
+        assertThrows(JwtException.class, () -> jwtUtil("HS256", true).verify(kidless));
+    }
+
+    @Test
+    void legacySecretStopsVerifyingUnderEs256() {
+        String kidless = kidlessToken(DEFAULT_SECRET);
+
+        assertThrows(JwtException.class, () -> jwtUtil("ES256", false).verify(kidless));
+        assertThrows(JwtException.class, () -> jwtUtil("ES256", true).verify(kidless));
+    }
+
+    @Test
+    void legacyRingEntryVerifiesKidlessTokensUntilRetired() {
+        String kidless = kidlessToken(DEFAULT_SECRET);
+        environment.setProperty("jwt.key-ring.active", "2026-10");
+        environment.setProperty("jwt.key-ring.keys.2026-10.secret", SECRET_2026_10);
+        environment.setProperty("jwt.key-ring.keys.legacy.secret", DEFAULT_SECRET);
+        environment.setProperty("jwt.key-ring.keys.legacy.legacy", "true");
+        JwtUtil jwtUtil = jwtUtil("HS256", true);
+
+        assertEquals("johndoe", jwtUtil.verify(kidless).getSubject());
+
+        environment.setProperty("jwt.key-ring.keys.legacy.retired-at",
+                Instant.now().minusMillis(EXPIRATION + 1000).toString());
+        jwtUtil.init();
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(kidless));
+    }
+
+    @Test
+    void singleKeyHs256ModeStillAcceptsKidlessTokens() {
+        assertEquals("johndoe", jwtUtil("HS256", true).verify(kidlessToken(DEFAULT_SECRET)).getSubject());
+    }
+
+    private JwtUtil jwtUtil(String algorithm, boolean fastPath) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", DEFAULT_SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expirationTime", EXPIRATION);
+        ReflectionTestUtils.setField(jwtUtil, "fastPathEnabled", fastPath);
+        ReflectionTestUtils.setField(jwtUtil, "algorithm", algorithm);
+        ReflectionTestUtils.setField(jwtUtil, "ecPrivateKey", "");
+        ReflectionTestUtils.setField(jwtUtil, "ecPublicKey", "");
+        ReflectionTestUtils.setField(jwtUtil, "environment", environment);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    private static String kidlessToken(String secret) {
+        return Jwts.builder()
+                .setSubject("johndoe")
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
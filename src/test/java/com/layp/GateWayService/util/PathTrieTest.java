@@ -0,0 +1,134 @@
+package com.layp.GateWayService.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathTrieTest {
+
+    private final PathTrie trie = PathTrie.compile(List.of(
+            "/auth/**",
+            "/hotels/*/reviews",
+            "/status",
+            "/public/*/**",
+            " ",
+            "/api/*"
+    ));
+
+    @Test
+    void matchesExactPaths() {
+        assertTrue(trie.matches("/status"));
+
+        assertFalse(trie.matches("/status/"));
+        assertFalse(trie.matches("/status/extra"));
+        assertFalse(trie.matches("/stat"));
+        assertFalse(trie.matches("/statuses"));
+        assertFalse(trie.matches("/Status"));
+    }
+
+    @Test
+    void matchesOneSegmentWildcards() {
+        assertTrue(trie.matches("/hotels/42/reviews"));
+        assertTrue(trie.matches("/api/users"));
+
+        assertFalse(trie.matches("/hotels/reviews"));
+        assertFalse(trie.matches("/hotels/42/7/reviews"));
+        assertFalse(trie.matches("/hotels//reviews"));
+        assertFalse(trie.matches("/api"));
+        assertFalse(trie.matches("/api/"));
+        assertFalse(trie.matches("/api/users/7"));
+    }
+
+    @Test
+    void matchesTrailingCatchAll() {
+        assertTrue(trie.matches("/auth"));
+        assertTrue(trie.matches("/auth/login"));
+        assertTrue(trie.matches("/auth/.well-known/jwks.json"));
+        assertTrue(trie.matches("/public/docs"));
+        assertTrue(trie.matches("/public/docs/a/b"));
+
+        assertFalse(trie.matches("/authx/login"));
+        assertFalse(trie.matches("/public"));
+    }
+
+    @Test
+    void rejectsDotAndEmptySegments() {
+        assertFalse(trie.matches("/auth/../layp/users"));
+        assertFalse(trie.matches("/auth/./login"));
+        assertFalse(trie.matches("/auth/login/.."));
+        assertFalse(trie.matches("/auth//login"));
+        assertFalse(trie.matches("//auth/login"));
+        assertFalse(trie.matches("/./status"));
+        assertFalse(trie.matches("/hotels/../reviews"));
+        assertFalse(trie.matches("/hotels/./reviews"));
+        assertFalse(trie.matches("/public/../admin/x"));
+
+        // Dots inside a segment are ordinary characters
+        assertTrue(trie.matches("/auth/..hidden"));
+        assertTrue(trie.matches("/api/..."));
+    }
+
+    @Test
+    void comparesEncodedSpellingsAsWritten() {
+        assertFalse(trie.matches("/%61uth/login"));
+        assertFalse(trie.matches("/st%61tus"));
+        assertFalse(trie.matches("/auth%2F..%2Flayp/users"));
+        assertFalse(trie.matches("/hotels/42/%72eviews"));
+
+        // Encoded characters that are not path syntax stay one ordinary segment
+        assertTrue(trie.matches("/auth/j%C3%B6rg"));
+        assertTrue(trie.matches("/api/a%20b"));
+        assertTrue(trie.matches("/auth/%2E%2E%2E"));
+    }
+
+    @Test
+    void rejectsSegmentsADownstreamServiceCouldDecodeIntoTraversal() {
+        assertFalse(trie.matches("/auth/%2E%2E/layp/users"));
+        assertFalse(trie.matches("/auth/%2e%2e/layp/users"));
+        assertFalse(trie.matches("/auth/.%2E/layp/users"));
+        assertFalse(trie.matches("/auth/%2E/login"));
+        assertFalse(trie.matches("/auth/..%2F..%2Flayp/users"));
+        assertFalse(trie.matches("/auth/x%2fy"));
+        assertFalse(trie.matches("/auth/..%5C..%5Clayp"));
+        assertFalse(trie.matches("/auth/..\\layp"));
+        assertFalse(trie.matches("/api/a%2Fb"));
+        assertFalse(trie.matches("/hotels/%2E%2E/reviews"));
+    }
+
+    @Test
+    void rejectsPathsWithoutLeadingSlash() {
+        assertFalse(trie.matches(null));
+        assertFalse(trie.matches(""));
+        assertFalse(trie.matches("auth/login"));
+    }
+
+    @Test
+    void rejectsMalformedPatterns() {
+        List<String> malformed = List.of(
+                "auth/**",
+                "/",
+                "/auth//login",
+                "/auth/**/login",
+                "/auth/log*",
+                "/auth/***",
+                "/auth/../admin",
+                "/auth/./login",
+                "/auth/"
+        );
+        for (String pattern : malformed) {
+            assertThrows(IllegalArgumentException.class, () -> PathTrie.compile(List.of(pattern)), pattern);
+        }
+    }
+
+    @Test
+    void emptyPatternSetMatchesNothing() {
+        PathTrie empty = PathTrie.compile(List.of());
+
+        assertFalse(empty.matches("/"));
+        assertFalse(empty.matches("/auth/login"));
+    }
+}